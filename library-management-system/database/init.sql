@@ -23,7 +23,8 @@ CREATE TABLE `users` (
   PRIMARY KEY (`id`),
   UNIQUE KEY `uk_username` (`username`),
   UNIQUE KEY `uk_email` (`email`),
-  UNIQUE KEY `uk_student_id` (`student_id`)
+  UNIQUE KEY `uk_student_id` (`student_id`),
+  KEY `idx_create_time` (`create_time`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='普通用户表';
 
 -- 2. 管理员表
@@ -87,6 +88,7 @@ CREATE TABLE `books` (
   KEY `idx_title` (`title`),
   KEY `idx_author` (`author`),
   KEY `idx_category_id` (`category_id`),
+  KEY `idx_create_time` (`create_time`),
   FOREIGN KEY (`category_id`) REFERENCES `book_categories` (`id`) ON DELETE RESTRICT
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='图书信息表';
 
@@ -132,6 +134,7 @@ CREATE TABLE `borrow_records` (
   KEY `idx_admin_id` (`admin_id`),
   KEY `idx_borrow_date` (`borrow_date`),
   KEY `idx_status` (`status`),
+  KEY `idx_status_due_date` (`status`, `due_date`),
   FOREIGN KEY (`user_id`) REFERENCES `users` (`id`) ON DELETE RESTRICT,
   FOREIGN KEY (`book_id`) REFERENCES `books` (`id`) ON DELETE RESTRICT,
   FOREIGN KEY (`book_record_id`) REFERENCES `book_records` (`id`) ON DELETE RESTRICT,
@@ -152,6 +155,28 @@ CREATE TABLE `favorites` (
   FOREIGN KEY (`book_id`) REFERENCES `books` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='用户收藏表';
 
+-- 8. 图书热度表(由应用定期写入借阅计数快照)
+CREATE TABLE `book_popularity` (
+  `book_id` BIGINT NOT NULL COMMENT '图书ID',
+  `borrow_count_7d` INT DEFAULT 0 COMMENT '近7天借阅次数',
+  `borrow_count_30d` INT DEFAULT 0 COMMENT '近30天借阅次数',
+  `update_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`book_id`),
+  KEY `idx_borrow_count_30d` (`borrow_count_30d`),
+  FOREIGN KEY (`book_id`) REFERENCES `books` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='图书热度表';
+
+-- 9. token吊销表(按token ID或按账户吊销，应用启动时加载到内存)
+CREATE TABLE `token_revocations` (
+  `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '记录ID',
+  `token_id` VARCHAR(64) DEFAULT NULL COMMENT '吊销的token ID(jti)，按账户吊销时为空',
+  `principal` VARCHAR(64) DEFAULT NULL COMMENT '按账户吊销时的账户标识，如 user:1、admin:1',
+  `revoked_at` DATETIME(3) NOT NULL COMMENT '吊销时间，按账户吊销时此前签发的token全部失效',
+  `expires_at` DATETIME NOT NULL COMMENT '记录失效时间，此后相关token已自然过期，可以清理',
+  PRIMARY KEY (`id`),
+  KEY `idx_expires_at` (`expires_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='token吊销表';
+
 -- 初始化管理员数据 (密码: admin123)
 INSERT INTO `admins` (`username`, `password`, `real_name`, `email`, `role`) VALUES
 ('admin', '$2a$10$N.zmdr9k7uOCQb376NoUnuTJ8iYqiSfFDYZt/I5/BFnhkSLsVBDSC', '超级管理员', 'admin@library.com', 'admin'),
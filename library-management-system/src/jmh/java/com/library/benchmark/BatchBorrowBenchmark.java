@@ -0,0 +1,107 @@
+package com.library.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.library.common.BorrowOutcome;
+import com.library.dto.BatchItemResult;
+import com.library.entity.BorrowRecord;
+import com.library.mapper.BorrowRecordMapper;
+import com.library.service.BorrowRecordService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// 为同一读者借阅 N 本书：N 次 borrowBook 对比一次 borrowBooks，借出后用 returnBooks 整批归还，数据量保持不变
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchBorrowBenchmark {
+
+    @Param({"5", "20"})
+    private int books;
+
+    private ConfigurableApplicationContext context;
+
+    private SyntheticData data;
+
+    private BorrowRecordService borrowRecordService;
+
+    private BorrowRecordMapper borrowRecordMapper;
+
+    private final AtomicInteger readers = new AtomicInteger();
+
+    @Setup
+    public void setup() {
+        data = SyntheticData.defaults();
+        context = BenchmarkContext.start(data);
+        borrowRecordService = context.getBean(BorrowRecordService.class);
+        borrowRecordMapper = context.getBean(BorrowRecordMapper.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+
+        private long userId;
+
+        private int next;
+
+        @Setup
+        public void setup(BatchBorrowBenchmark benchmark) {
+            int index = benchmark.readers.getAndIncrement();
+            userId = benchmark.data.userId(index);
+            next = index * 7919;
+        }
+
+        List<Long> nextBookIds(SyntheticData data, int count) {
+            List<Long> bookIds = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                bookIds.add(data.bookId(next++));
+            }
+            return bookIds;
+        }
+    }
+
+    @Benchmark
+    public int singleBorrows(Reader reader) {
+        List<Long> bookIds = reader.nextBookIds(data, books);
+        int borrowed = 0;
+        for (Long bookId : bookIds) {
+            if (borrowRecordService.borrowBook(reader.userId, bookId) == BorrowOutcome.SUCCESS) {
+                borrowed++;
+            }
+        }
+        returnAll(reader);
+        return borrowed;
+    }
+
+    @Benchmark
+    public int batchBorrow(Reader reader) {
+        List<BatchItemResult> results = borrowRecordService.borrowBooks(reader.userId, reader.nextBookIds(data, books), null);
+        returnAll(reader);
+        return (int) results.stream().filter(BatchItemResult::getSuccess).count();
+    }
+
+    // 两种借阅方式共用同一段归还开销：按读者查出借阅中的记录，整批归还
+    private void returnAll(Reader reader) {
+        List<Long> recordIds = borrowRecordMapper.selectObjs(new QueryWrapper<BorrowRecord>()
+                        .select("id")
+                        .eq("user_id", reader.userId)
+                        .eq("status", 1))
+                .stream().map(id -> ((Number) id).longValue()).collect(Collectors.toList());
+        if (!recordIds.isEmpty()) {
+            borrowRecordService.returnBooks(recordIds);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.library.benchmark;
+
+import com.library.LibraryApplication;
+import com.library.support.H2Schema;
+import org.springframework.boot.Banner;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 基准测试的运行环境：H2 内存库（MySQL 兼容模式）加载 database/init.sql 和合成数据，再启动完整的应用上下文
+public final class BenchmarkContext {
+
+    public static final String JDBC_URL = H2Schema.url("library_bench");
+
+    private BenchmarkContext() {
+    }
+
+    // overrides 为 "key=value" 形式的额外配置，覆盖下面的默认值
+    public static ConfigurableApplicationContext start(SyntheticData data, String... overrides) {
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "")) {
+            H2Schema.load(connection);
+            data.populate(connection);
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("初始化基准测试数据库失败", e);
+        }
+
+        // 安全配置依赖 Spring MVC，仍以 Web 应用启动，端口随机分配；定时任务间隔拉长，避免干扰测量
+        Map<String, String> properties = new LinkedHashMap<>();
+        properties.put("server.port", "0");
+        properties.put("management.server.port", "0");
+        properties.put("spring.datasource.url", JDBC_URL);
+        properties.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        properties.put("spring.datasource.username", "sa");
+        properties.put("spring.datasource.password", "");
+        properties.put("library.overdue.sweep-interval-ms", "3600000");
+        properties.put("library.popularity.refresh-interval-ms", "3600000");
+        properties.put("library.popularity.checkpoint-interval-ms", "3600000");
+        properties.put("library.suggest.rebuild-interval-ms", "3600000");
+        properties.put("library.category.refresh-interval-ms", "3600000");
+        for (String override : overrides) {
+            int separator = override.indexOf('=');
+            properties.put(override.substring(0, separator), override.substring(separator + 1));
+        }
+
+        // 以命令行参数传入，优先级最高，覆盖 application.yml 中的 MySQL 配置
+        return new SpringApplicationBuilder(LibraryApplication.class)
+                .bannerMode(Banner.Mode.OFF)
+                .run(properties.entrySet().stream()
+                        .map(e -> "--" + e.getKey() + "=" + e.getValue())
+                        .toArray(String[]::new));
+    }
+}
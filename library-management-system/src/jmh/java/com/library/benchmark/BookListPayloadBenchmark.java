@@ -0,0 +1,69 @@
+package com.library.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.cache.CategoryTreeCache;
+import com.library.common.Result;
+import com.library.dto.BookListItem;
+import com.library.entity.Book;
+import com.library.mapper.BookMapper;
+import com.library.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// 图书列表一页20条的响应体：entities 为改用投影之前的完整实体（全部列加嵌套的分类对象），
+// projection 为当前的 BookListItem。两种数据均在启动时从合成数据查出，只测量序列化；
+// 启动时打印两种响应体的字节数，每次序列化的分配量用 -prof gc 查看
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookListPayloadBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+
+    private Result<Page<Book>> entities;
+
+    private Result<Page<BookListItem>> projection;
+
+    @Setup
+    public void setup() throws Exception {
+        ConfigurableApplicationContext context = BenchmarkContext.start(SyntheticData.defaults());
+        try {
+            // Spring MVC 写响应体使用的 ObjectMapper
+            objectMapper = context.getBean(ObjectMapper.class);
+
+            CategoryTreeCache categoryTreeCache = context.getBean(CategoryTreeCache.class);
+            QueryWrapper<Book> wrapper = new QueryWrapper<>();
+            wrapper.orderByDesc("create_time");
+            Page<Book> books = context.getBean(BookMapper.class).selectPage(new Page<>(1, PAGE_SIZE), wrapper);
+            books.getRecords().forEach(book -> book.setCategory(categoryTreeCache.get(book.getCategoryId())));
+            entities = Result.success(books);
+
+            projection = Result.success(context.getBean(BookService.class)
+                    .getBookPage(new Page<>(1, PAGE_SIZE), null, null, null));
+        } finally {
+            context.close();
+        }
+
+        System.out.printf("一页%d条的响应体：完整实体%d字节，列表投影%d字节%n",
+                PAGE_SIZE, entities().length, projection().length);
+    }
+
+    @Benchmark
+    public byte[] entities() throws Exception {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] projection() throws Exception {
+        return objectMapper.writeValueAsBytes(projection);
+    }
+}
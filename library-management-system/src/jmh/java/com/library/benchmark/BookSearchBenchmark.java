@@ -0,0 +1,61 @@
+package com.library.benchmark;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.library.dto.BookListItem;
+import com.library.mapper.BookMapper;
+import com.library.service.BookService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// BookServiceImpl.searchBooks：倒排索引取当前页ID，再按主键从 H2 加载列表行；
+// 对照组是索引未就绪时使用的 BookMapper.searchBookListItems（LIKE '%keyword%' 全表扫描），同一批合成数据和关键词
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSearchBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private BookService bookService;
+
+    private BookMapper bookMapper;
+
+    private List<String> keywords;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        SyntheticData data = SyntheticData.defaults();
+        context = BenchmarkContext.start(data);
+        bookService = context.getBean(BookService.class);
+        bookMapper = context.getBean(BookMapper.class);
+        keywords = data.keywords();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<BookListItem> searchBooks() {
+        return bookService.searchBooks(new Page<>(1, 20), nextKeyword());
+    }
+
+    // 总数由分页插件查询，相同条件的 COUNT 会命中分页总数缓存
+    @Benchmark
+    public Page<BookListItem> searchBooksSql() {
+        return bookMapper.searchBookListItems(new Page<>(1, 20), nextKeyword());
+    }
+
+    private String nextKeyword() {
+        return keywords.get(next++ % keywords.size());
+    }
+}
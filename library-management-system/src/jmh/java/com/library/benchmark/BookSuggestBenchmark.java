@@ -0,0 +1,73 @@
+package com.library.benchmark;
+
+import com.library.cache.BookSuggestTrie;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// BookSuggestTrie 的前缀联想：按采样统计延迟分布，关注 p0.99；
+// 启动时另建一棵同样数据的前缀树，用 GC 前后的堆占用估算其内存占用
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSuggestBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private BookSuggestTrie bookSuggestTrie;
+
+    private List<String> prefixes;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        SyntheticData data = SyntheticData.defaults();
+        context = BenchmarkContext.start(data);
+        bookSuggestTrie = context.getBean(BookSuggestTrie.class);
+
+        // 单字前缀命中的节点最多，完整词的路径最深
+        prefixes = new ArrayList<>();
+        for (String keyword : data.keywords()) {
+            prefixes.add(keyword.substring(0, 1));
+            prefixes.add(keyword);
+        }
+        reportFootprint();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookSuggestTrie.Suggestion> suggest() {
+        String prefix = prefixes.get(next++ % prefixes.size());
+        return bookSuggestTrie.suggest(prefix, BookSuggestTrie.TOP_K);
+    }
+
+    private void reportFootprint() {
+        BookSuggestTrie trie = new BookSuggestTrie();
+        context.getAutowireCapableBeanFactory().autowireBean(trie);
+        long before = usedHeap();
+        trie.rebuild();
+        long after = usedHeap();
+        long bytes = after - before;
+        System.out.printf("前缀树：图书%d本，节点%d个，约占堆内存%d字节（%.1fMB，每本图书%d字节）%n",
+                trie.size(), trie.getNodeCount(), bytes, bytes / 1024.0 / 1024.0, bytes / Math.max(trie.size(), 1));
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
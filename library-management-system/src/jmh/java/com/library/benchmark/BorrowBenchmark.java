@@ -0,0 +1,121 @@
+package com.library.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.library.common.BorrowOutcome;
+import com.library.entity.BorrowRecord;
+import com.library.mapper.BorrowRecordMapper;
+import com.library.service.BorrowRecordService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// BorrowRecordServiceImpl.borrowBook/returnBook：借出后立即归还，数据量保持不变，可多线程运行（-t 4）。
+// copyPool=false 时关闭副本池，借阅全部走 "status = 1 LIMIT 1" 条件更新，热门图书的吞吐量对比两种占用方式
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BorrowBenchmark {
+
+    // 热门图书的副本数，多于测试线程数，借阅不会因无可借副本失败
+    private static final int HOT_COPIES = 16;
+
+    @Param({"true", "false"})
+    public boolean copyPool;
+
+    private ConfigurableApplicationContext context;
+
+    private SyntheticData data;
+
+    private BorrowRecordService borrowRecordService;
+
+    private BorrowRecordMapper borrowRecordMapper;
+
+    private long hotBookId;
+
+    private final AtomicInteger readers = new AtomicInteger();
+
+    @Setup
+    public void setup() {
+        data = SyntheticData.defaults();
+        context = BenchmarkContext.start(data, "library.copy-pool.enabled=" + copyPool);
+        borrowRecordService = context.getBean(BorrowRecordService.class);
+        borrowRecordMapper = context.getBean(BorrowRecordMapper.class);
+
+        hotBookId = data.bookId(data.getBookCount() / 2);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        for (int copy = data.getCopiesPerBook(); copy < HOT_COPIES; copy++) {
+            jdbcTemplate.update("INSERT INTO book_records (book_id, barcode, location, status) VALUES (?, ?, ?, 1)",
+                    hotBookId, String.format("BK%010d%04d", hotBookId, copy), "热门书架");
+        }
+        jdbcTemplate.update("UPDATE books SET total_copies = ?, available_copies = ? WHERE id = ?",
+                HOT_COPIES, HOT_COPIES, hotBookId);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // 每个线程固定一个读者，依次借阅不同的图书
+    @State(Scope.Thread)
+    public static class Reader {
+
+        private long userId;
+
+        private int next;
+
+        // 预先借出、不再归还的图书，用于拒绝路径
+        private long heldBookId;
+
+        @Setup
+        public void setup(BorrowBenchmark benchmark) {
+            int index = benchmark.readers.getAndIncrement();
+            userId = benchmark.data.userId(index);
+            next = index * 7919;
+            heldBookId = benchmark.data.bookId(-1 - index);
+            benchmark.borrowRecordService.borrowBook(userId, heldBookId);
+        }
+
+        long nextBookId(SyntheticData data) {
+            return data.bookId(next++);
+        }
+    }
+
+    @Benchmark
+    public boolean borrowAndReturn(Reader reader) {
+        return borrowAndReturn(reader.userId, reader.nextBookId(data));
+    }
+
+    // 所有线程借阅同一本热门图书后立即归还
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean borrowHotTitle(Reader reader) {
+        return borrowAndReturn(reader.userId, hotBookId);
+    }
+
+    // 已借阅同一本书时的拒绝路径
+    @Benchmark
+    public BorrowOutcome borrowAlreadyBorrowed(Reader reader) {
+        return borrowRecordService.borrowBook(reader.userId, reader.heldBookId);
+    }
+
+    private boolean borrowAndReturn(long userId, long bookId) {
+        if (borrowRecordService.borrowBook(userId, bookId) != BorrowOutcome.SUCCESS) {
+            return false;
+        }
+        // borrowBook 不返回记录ID，按读者和图书查出借阅中的记录再归还
+        BorrowRecord record = borrowRecordMapper.selectOne(new QueryWrapper<BorrowRecord>()
+                .select("id")
+                .eq("user_id", userId)
+                .eq("book_id", bookId)
+                .eq("status", 1));
+        return borrowRecordService.returnBook(userId, record.getId());
+    }
+}
@@ -0,0 +1,113 @@
+package com.library.benchmark;
+
+import com.library.mapper.TokenRevocationMapper;
+import com.library.security.JwtAuthenticationFilter;
+import com.library.security.TokenRevocationList;
+import com.library.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.FilterChain;
+import java.util.concurrent.TimeUnit;
+
+// 带 Bearer token 的请求经过 JwtAuthenticationFilter 的每秒请求数，包括建立安全上下文和吊销检查；
+// cached=false 时每次解析都重新生成密钥、构建解析器并验签，即加入验证结果缓存之前的做法
+// （当时过滤器每个请求还要解析4次，实际开销约为该结果的4倍）。
+// revoked 为预先吊销的其他token数量，另有同样数量的账户级吊销，检查耗时不应随之增长
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    @Param({"0", "10000"})
+    private int revoked;
+
+    private JwtAuthenticationFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    private FilterChain chain;
+
+    @Setup
+    public void setup() {
+        JwtUtils jwtUtils = cached ? JwtBenchmark.jwtUtils() : uncachedJwtUtils();
+        filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "tokenRevocationList", revocationList(jwtUtils, revoked));
+
+        request = new MockHttpServletRequest("GET", "/api/borrow-records/my");
+        request.addHeader("Authorization", "Bearer " + jwtUtils.generateToken(42L, "reader42", "USER"));
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> {
+        };
+    }
+
+    @Benchmark
+    public Authentication doFilter() throws Exception {
+        try {
+            filter.doFilter(request, response, chain);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static JwtUtils uncachedJwtUtils() {
+        JwtUtils jwtUtils = new UncachedJwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", JwtBenchmark.SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 900000L);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpiration", 604800000L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheSize", 10000L);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+
+    // 吊销记录只写入内存，数据库访问由空实现代替
+    static TokenRevocationList revocationList(JwtUtils jwtUtils, int revoked) {
+        TokenRevocationList revocationList = new TokenRevocationList();
+        ReflectionTestUtils.setField(revocationList, "tokenRevocationMapper", Mockito.mock(TokenRevocationMapper.class));
+        ReflectionTestUtils.setField(revocationList, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(revocationList, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(revocationList, "expectedEntries", 100000L);
+        revocationList.init();
+        for (int i = 0; i < revoked; i++) {
+            long userId = 1000L + i;
+            revocationList.revoke(jwtUtils.getClaimsFromToken(jwtUtils.generateToken(userId, "reader" + userId, "USER")));
+            revocationList.revokeAll("USER", userId);
+        }
+        return revocationList;
+    }
+
+    private static final class UncachedJwtUtils extends JwtUtils {
+
+        @Override
+        public Claims getClaimsFromToken(String token) {
+            try {
+                return Jwts.parserBuilder()
+                        .setSigningKey(Keys.hmacShaKeyFor(JwtBenchmark.SECRET.getBytes()))
+                        .build()
+                        .parseClaimsJws(token)
+                        .getBody();
+            } catch (Exception e) {
+                return null;
+            }
+        }
+    }
+}
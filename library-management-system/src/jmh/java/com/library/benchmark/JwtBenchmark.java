@@ -0,0 +1,64 @@
+package com.library.benchmark;
+
+import com.library.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// JwtUtils 生成与解析token；verifyToken 是缓存未命中时验证签名的开销
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    static final String SECRET = "library-management-secret-key-2024";
+
+    private JwtUtils jwtUtils;
+
+    private JwtParser jwtParser;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = jwtUtils();
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes()))
+                .build();
+        token = jwtUtils.generateToken(42L, "reader42", "USER");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(42L, "reader42", "USER");
+    }
+
+    @Benchmark
+    public Claims parseToken() {
+        return jwtUtils.getClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public Claims verifyToken() {
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    // 不启动 Spring 上下文，按 application.yml 的配置手动初始化
+    static JwtUtils jwtUtils() {
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 900000L);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpiration", 604800000L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheSize", 10000L);
+        jwtUtils.init();
+        return jwtUtils;
+    }
+}
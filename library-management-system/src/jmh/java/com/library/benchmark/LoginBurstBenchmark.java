@@ -0,0 +1,130 @@
+package com.library.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 登录高峰时目录接口的延迟：catalogue 为无登录压力的基线，loginBurst 组在32个并发登录的同时请求图书列表；
+// 两组 catalogue 的延迟分布应基本一致，login 的 ok/busy 计数反映哈希线程池的排队与拒绝情况
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class LoginBurstBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private SyntheticData data;
+
+    private String baseUrl;
+
+    private final AtomicInteger clients = new AtomicInteger();
+
+    @Setup
+    public void setup() {
+        data = SyntheticData.defaults();
+        // 关闭响应缓存和登录限流，测量的是真实的查询与哈希开销
+        context = BenchmarkContext.start(data,
+                "library.response-cache.maximum-bytes=0",
+                "library.login.max-attempts-per-username=" + Integer.MAX_VALUE,
+                "library.login.max-attempts-per-ip=" + Integer.MAX_VALUE);
+        baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private int index;
+
+        private int next;
+
+        @Setup
+        public void setup(LoginBurstBenchmark benchmark) {
+            index = benchmark.clients.getAndIncrement();
+        }
+    }
+
+    // 每个登录线程的结果计数，busy 为返回429的次数
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class LoginCounters {
+
+        public long ok;
+
+        public long busy;
+
+        public long failed;
+    }
+
+    @Benchmark
+    public String catalogue(Client client) throws IOException {
+        return listBooks(client);
+    }
+
+    @Benchmark
+    @Group("loginBurst")
+    @GroupThreads(1)
+    public String catalogueDuringLogins(Client client) throws IOException {
+        return listBooks(client);
+    }
+
+    @Benchmark
+    @Group("loginBurst")
+    @GroupThreads(32)
+    public String login(Client client, LoginCounters counters) throws IOException {
+        long userId = data.userId(client.index * 1000 + client.next++);
+        String body = "{\"username\":\"reader" + userId + "\",\"password\":\"" + SyntheticData.PASSWORD + "\",\"type\":\"user\"}";
+        String response = request("POST", "/api/auth/login", body);
+        if (response.contains("\"code\":200")) {
+            counters.ok++;
+        } else if (response.contains("\"code\":429")) {
+            counters.busy++;
+        } else {
+            counters.failed++;
+        }
+        return response;
+    }
+
+    private String listBooks(Client client) throws IOException {
+        int page = 1 + client.next++ % 500;
+        return request("GET", "/api/books/list?current=" + page + "&size=20", null);
+    }
+
+    private String request(String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        try (InputStream in = connection.getResponseCode() < 400
+                ? connection.getInputStream() : connection.getErrorStream()) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            while (in != null && (n = in.read(buffer)) != -1) {
+                out.write(buffer, 0, n);
+            }
+            return out.toString("UTF-8");
+        }
+    }
+}
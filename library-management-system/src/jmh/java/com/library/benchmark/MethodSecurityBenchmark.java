@@ -0,0 +1,109 @@
+package com.library.benchmark;
+
+import com.library.controller.UserController;
+import com.library.interceptor.StatementBudgetInterceptor;
+import com.library.security.LoginUser;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// UserController 上 @PreAuthorize 的校验耗时：读者访问他人资料和管理员接口时在方法体执行前被拒绝，
+// 整个过程只读取认证主体中的角色和用户ID。启动时先确认校验过程没有执行任何SQL，
+// 管理员调用放行时也只执行方法体本身的一条 UPDATE
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodSecurityBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private UserController userController;
+
+    private Authentication reader;
+
+    private long otherReaderId;
+
+    @Setup
+    public void setup() {
+        SyntheticData data = SyntheticData.defaults();
+        context = BenchmarkContext.start(data);
+        userController = context.getBean(UserController.class);
+
+        long readerId = data.userId(0);
+        otherReaderId = data.userId(1);
+        LoginUser loginUser = new LoginUser(readerId, "reader" + readerId, LoginUser.ROLE_USER);
+        reader = new UsernamePasswordAuthenticationToken(loginUser, null, loginUser.getAuthorities());
+
+        assertNoStatements("updatePassword", this::denyOtherReader);
+        assertNoStatements("updateUserStatus", this::denyAdminEndpoint);
+        assertAdminAllowed();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    // 所有权校验：读者修改他人的密码
+    @Benchmark
+    public AccessDeniedException denyOtherReader() {
+        return invoke(() -> userController.updatePassword(otherReaderId, "old", "new"));
+    }
+
+    // 角色校验：读者调用仅限管理员的接口
+    @Benchmark
+    public AccessDeniedException denyAdminEndpoint() {
+        return invoke(() -> userController.updateUserStatus(otherReaderId, 0));
+    }
+
+    private AccessDeniedException invoke(Runnable call) {
+        SecurityContextHolder.getContext().setAuthentication(reader);
+        try {
+            call.run();
+            return null;
+        } catch (AccessDeniedException e) {
+            return e;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private void assertAdminAllowed() {
+        LoginUser admin = new LoginUser(1L, "admin", "admin");
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(admin, null, admin.getAuthorities()));
+        StatementBudgetInterceptor.RequestStatements statements = StatementBudgetInterceptor.begin("admin");
+        try {
+            userController.updateUserStatus(otherReaderId, 1);
+            if (statements.getTotal() != 1) {
+                throw new IllegalStateException("管理员修改用户状态执行了额外的SQL: " + statements.getCounts());
+            }
+        } finally {
+            StatementBudgetInterceptor.end();
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static void assertNoStatements(String method, Supplier<AccessDeniedException> call) {
+        StatementBudgetInterceptor.RequestStatements statements = StatementBudgetInterceptor.begin(method);
+        try {
+            if (call.get() == null) {
+                throw new IllegalStateException(method + " 未被拒绝");
+            }
+            if (statements.getTotal() != 0) {
+                throw new IllegalStateException(method + " 权限校验执行了SQL: " + statements.getCounts());
+            }
+        } finally {
+            StatementBudgetInterceptor.end();
+        }
+    }
+}
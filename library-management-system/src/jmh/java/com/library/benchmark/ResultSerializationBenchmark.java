@@ -0,0 +1,101 @@
+package com.library.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.library.common.Result;
+import com.library.dto.BookListItem;
+import com.library.entity.Book;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Result 响应体的序列化：Spring MVC 使用的 Jackson 与依赖中的 FastJSON 对比
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    // detail：单本图书详情；page：一页20条的图书列表
+    @Param({"detail", "page"})
+    private String payload;
+
+    private ObjectMapper objectMapper;
+
+    private Result<?> result;
+
+    @Setup
+    public void setup() {
+        // 与 Spring Boot 默认的 ObjectMapper 配置一致
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        result = "page".equals(payload) ? Result.success(bookPage(20)) : Result.success(book(1));
+    }
+
+    @Benchmark
+    public byte[] jackson() throws Exception {
+        return objectMapper.writeValueAsBytes(result);
+    }
+
+    @Benchmark
+    public byte[] fastjson() {
+        return JSON.toJSONBytes(result);
+    }
+
+    private static Page<BookListItem> bookPage(int size) {
+        List<BookListItem> items = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            BookListItem item = new BookListItem();
+            item.setId((long) i);
+            item.setIsbn("978-7-111-" + (54000 + i));
+            item.setTitle("数据系统设计 第" + i + "版");
+            item.setAuthor("Martin Kleppmann");
+            item.setPublisher("中国电力出版社");
+            item.setPublishDate(LocalDate.of(2018, 9, 1));
+            item.setCategoryId(2L);
+            item.setCategoryName("科技");
+            item.setCoverImage("/uploads/covers/" + i + ".jpg");
+            item.setTotalCopies(10);
+            item.setAvailableCopies(i % 10);
+            item.setStatus(1);
+            item.setCreateTime(LocalDateTime.of(2024, 1, 1, 8, 0).plusMinutes(i));
+            items.add(item);
+        }
+        Page<BookListItem> page = new Page<>(1, size, 1000);
+        page.setRecords(items);
+        return page;
+    }
+
+    private static Book book(long id) {
+        Book book = new Book();
+        book.setId(id);
+        book.setIsbn("978-7-111-54000");
+        book.setTitle("数据密集型应用系统设计");
+        book.setAuthor("Martin Kleppmann");
+        book.setPublisher("中国电力出版社");
+        book.setPublishDate(LocalDate.of(2018, 9, 1));
+        book.setCategoryId(2L);
+        book.setDescription("全面介绍数据系统的原理、实践与应用，涵盖存储、复制、分区、事务与分布式系统的一致性问题。");
+        book.setCoverImage("/uploads/covers/1.jpg");
+        book.setPageCount(556);
+        book.setLanguage("中文");
+        book.setPrice(new BigDecimal("128.00"));
+        book.setTotalCopies(10);
+        book.setAvailableCopies(7);
+        book.setStatus(1);
+        book.setCreateTime(LocalDateTime.of(2024, 1, 1, 8, 0));
+        book.setUpdateTime(LocalDateTime.of(2024, 3, 1, 8, 0));
+        return book;
+    }
+}
@@ -0,0 +1,181 @@
+package com.library.benchmark;
+
+import lombok.Getter;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// 基准测试的合成数据：固定随机种子，每次生成的用户、图书和副本完全相同
+@Getter
+public class SyntheticData {
+
+    public static final long DEFAULT_SEED = 20240601L;
+
+    // 所有合成用户的登录密码
+    public static final String PASSWORD = "reader123";
+
+    private static final int BATCH_SIZE = 1000;
+
+    private static final String[] CN_WORDS = {
+            "数据", "系统", "设计", "历史", "文明", "经济", "哲学", "艺术", "算法", "网络",
+            "城市", "战争", "科学", "心理", "教育", "文学", "音乐", "建筑", "自然", "宇宙",
+            "管理", "社会", "语言", "思想", "中国", "世界", "未来", "生命", "技术", "原理"
+    };
+
+    private static final String[] EN_WORDS = {
+            "java", "spring", "database", "distributed", "python", "kernel", "compiler", "design",
+            "history", "economics", "graph", "cloud", "security", "network", "theory", "practice"
+    };
+
+    private static final String[] SURNAMES = {"王", "李", "张", "刘", "陈", "杨", "赵", "黄", "周", "吴"};
+
+    private static final String[] PUBLISHERS = {
+            "机械工业出版社", "人民文学出版社", "中信出版社", "清华大学出版社", "商务印书馆", "人民邮电出版社"
+    };
+
+    // init.sql 初始化的分类数量
+    private static final int CATEGORY_COUNT = 7;
+
+    private final long seed;
+    private final int userCount;
+    private final int bookCount;
+    private final int copiesPerBook;
+
+    private long firstUserId;
+    private long firstBookId;
+
+    public SyntheticData(long seed, int userCount, int bookCount, int copiesPerBook) {
+        this.seed = seed;
+        this.userCount = userCount;
+        this.bookCount = bookCount;
+        this.copiesPerBook = copiesPerBook;
+    }
+
+    public static SyntheticData defaults() {
+        return new SyntheticData(DEFAULT_SEED, 2000, 20000, 3);
+    }
+
+    // 写入用户、图书和副本，ID 紧接在 init.sql 的初始数据之后
+    public void populate(Connection connection) throws SQLException {
+        Random random = new Random(seed);
+        firstUserId = maxId(connection, "users") + 1;
+        firstBookId = maxId(connection, "books") + 1;
+        connection.setAutoCommit(false);
+        try {
+            insertUsers(connection);
+            insertBooks(connection, random);
+            insertBookRecords(connection);
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    public long userId(int index) {
+        return firstUserId + Math.floorMod(index, userCount);
+    }
+
+    public long bookId(int index) {
+        return firstBookId + Math.floorMod(index, bookCount);
+    }
+
+    // 检索用的关键词，取自生成书名的词表
+    public List<String> keywords() {
+        List<String> keywords = new ArrayList<>();
+        for (String word : CN_WORDS) {
+            keywords.add(word);
+        }
+        for (String word : EN_WORDS) {
+            keywords.add(word);
+        }
+        return keywords;
+    }
+
+    private void insertUsers(Connection connection) throws SQLException {
+        // 与应用默认强度相同的 BCrypt 哈希，所有用户共用一个
+        String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+        String sql = "INSERT INTO users (id, username, password, email, real_name, student_id, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?, 1)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < userCount; i++) {
+                long id = firstUserId + i;
+                ps.setLong(1, id);
+                ps.setString(2, "reader" + id);
+                ps.setString(3, passwordHash);
+                ps.setString(4, "reader" + id + "@library.com");
+                ps.setString(5, SURNAMES[i % SURNAMES.length] + "同学" + id);
+                ps.setString(6, String.format("S%08d", id));
+                ps.addBatch();
+                flushIfFull(ps, i);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertBooks(Connection connection, Random random) throws SQLException {
+        String sql = "INSERT INTO books (id, isbn, title, author, publisher, publish_date, category_id, description, " +
+                "total_copies, available_copies, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < bookCount; i++) {
+                long id = firstBookId + i;
+                ps.setLong(1, id);
+                ps.setString(2, String.format("978-7-%05d-%03d-%d", id / 1000, id % 1000, id % 10));
+                ps.setString(3, pick(random, CN_WORDS) + pick(random, CN_WORDS) + " " + pick(random, EN_WORDS));
+                ps.setString(4, pick(random, SURNAMES) + pick(random, CN_WORDS));
+                ps.setString(5, pick(random, PUBLISHERS));
+                ps.setDate(6, Date.valueOf(LocalDate.of(1990, 1, 1).plusDays(random.nextInt(12000))));
+                ps.setLong(7, 1 + random.nextInt(CATEGORY_COUNT));
+                ps.setString(8, pick(random, CN_WORDS) + "与" + pick(random, CN_WORDS) + "的"
+                        + pick(random, CN_WORDS) + " " + pick(random, EN_WORDS) + " " + pick(random, EN_WORDS));
+                ps.setInt(9, copiesPerBook);
+                ps.setInt(10, copiesPerBook);
+                ps.addBatch();
+                flushIfFull(ps, i);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private void insertBookRecords(Connection connection) throws SQLException {
+        String sql = "INSERT INTO book_records (book_id, barcode, location, status) VALUES (?, ?, ?, 1)";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            int count = 0;
+            for (int i = 0; i < bookCount; i++) {
+                long bookId = firstBookId + i;
+                for (int copy = 0; copy < copiesPerBook; copy++) {
+                    ps.setLong(1, bookId);
+                    ps.setString(2, String.format("BK%010d%04d", bookId, copy));
+                    ps.setString(3, "书库" + (bookId % 20 + 1) + "排");
+                    ps.addBatch();
+                    flushIfFull(ps, count++);
+                }
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void flushIfFull(PreparedStatement ps, int index) throws SQLException {
+        if ((index + 1) % BATCH_SIZE == 0) {
+            ps.executeBatch();
+        }
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static String pick(Random random, String[] words) {
+        return words[random.nextInt(words.length)];
+    }
+}
@@ -0,0 +1,94 @@
+package com.library.cache;
+
+import com.library.mapper.BookRecordMapper;
+import com.library.utils.TransactionUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 按图书划分的可借副本池：借阅时按副本ID条件占用，避免所有借阅者争抢同一条 "status = 1 LIMIT 1" 记录。
+// 池中的ID只是提示，以数据库条件更新的结果为准，已失效的ID直接丢弃。
+@Slf4j
+@Component
+public class BookCopyPool {
+
+    @Resource
+    private BookRecordMapper bookRecordMapper;
+
+    // 关闭后借阅全部走 "status = 1 LIMIT 1" 条件更新，用于对比和排查问题
+    @Value("${library.copy-pool.enabled:true}")
+    private boolean enabled;
+
+    // 池为空时重新从数据库加载的最短间隔
+    @Value("${library.copy-pool.reload-interval-ms:10000}")
+    private long reloadIntervalMs;
+
+    private final ConcurrentMap<Long, Pool> pools = new ConcurrentHashMap<>();
+
+    // 在当前事务中占用一个副本，事务回滚后副本回到池中；池中无可用副本时返回 null
+    public Long acquire(Long bookId) {
+        if (!enabled) {
+            return null;
+        }
+        Pool pool = pools.computeIfAbsent(bookId, id -> new Pool());
+        if (pool.ids.isEmpty()) {
+            reload(bookId, pool);
+        }
+
+        Long id;
+        while ((id = pool.ids.poll()) != null) {
+            if (bookRecordMapper.claimBookRecord(id) > 0) {
+                Long claimedId = id;
+                TransactionUtils.afterRollback(() -> release(bookId, claimedId));
+                return claimedId;
+            }
+            // 副本已被其他途径占用，丢弃该ID
+        }
+        return null;
+    }
+
+    // 副本归还后放回池中，仅在该图书的池已加载时生效
+    public void release(Long bookId, Long bookRecordId) {
+        Pool pool = pools.get(bookId);
+        if (pool != null) {
+            pool.ids.offer(bookRecordId);
+        }
+    }
+
+    public void evict(Long bookId) {
+        pools.remove(bookId);
+    }
+
+    public int size() {
+        return pools.size();
+    }
+
+    private void reload(Long bookId, Pool pool) {
+        long now = System.currentTimeMillis();
+        if (now - pool.loadedAt < reloadIntervalMs || !pool.loading.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            if (pool.ids.isEmpty()) {
+                pool.ids.addAll(bookRecordMapper.selectAvailableIds(bookId));
+                log.debug("图书[{}]副本池加载{}个可借副本", bookId, pool.ids.size());
+            }
+            pool.loadedAt = now;
+        } finally {
+            pool.loading.set(false);
+        }
+    }
+
+    private static class Pool {
+        private final Queue<Long> ids = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean loading = new AtomicBoolean();
+        private volatile long loadedAt;
+    }
+}
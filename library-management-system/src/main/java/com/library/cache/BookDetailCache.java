@@ -0,0 +1,49 @@
+package com.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.entity.Book;
+import com.library.mapper.BookMapper;
+import com.library.utils.TransactionUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+
+// 图书详情（含分类）的读穿透缓存，图书信息或可借数量变化时失效
+@Component
+public class BookDetailCache {
+
+    @Resource
+    private BookMapper bookMapper;
+
+    @Value("${library.cache.book-detail-size:5000}")
+    private long maximumSize;
+
+    private Cache<Long, Book> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    public Book get(Long bookId) {
+        return cache.get(bookId, bookMapper::selectBookWithCategoryById);
+    }
+
+    // 在当前事务提交后失效，避免并发读把旧数据重新放回缓存
+    public void evict(Long bookId) {
+        TransactionUtils.afterCommit(() -> cache.invalidate(bookId));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.estimatedSize();
+    }
+}
@@ -0,0 +1,240 @@
+package com.library.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.library.entity.BookPopularity;
+import com.library.mapper.BookPopularityMapper;
+import com.library.mapper.BorrowRecordMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// 按天分桶的图书借阅计数，维护近7天和近30天的热门图书排行
+@Slf4j
+@Component
+public class BookPopularityTracker {
+
+    public static final int WINDOW_DAYS = 30;
+    public static final int WEEK_DAYS = 7;
+
+    // 排行快照保留的图书数量，也是热门接口的最大返回数量
+    public static final int TOP_SIZE = 100;
+
+    private static final int CHECKPOINT_BATCH_SIZE = 500;
+
+    @Resource
+    private BorrowRecordMapper borrowRecordMapper;
+
+    @Resource
+    private BookPopularityMapper bookPopularityMapper;
+
+    private final ConcurrentMap<Long, Counter> counters = new ConcurrentHashMap<>();
+
+    // 自上次落库以来有变化的图书
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet();
+
+    private volatile List<Long> weekTop = Collections.emptyList();
+    private volatile List<Long> monthTop = Collections.emptyList();
+    private volatile boolean topChanged;
+    private volatile long lastRefreshDay;
+    private volatile long lastCheckpointDay;
+
+    // 计数是否已从借阅记录恢复，恢复前不刷新排行也不落库，避免不完整的计数覆盖快照
+    private volatile boolean loaded;
+
+    // 启动时用一次聚合查询恢复近30天的计数；查询失败时先用上次落库的排行，之后定期重试
+    @PostConstruct
+    public void load() {
+        try {
+            restoreCounters();
+        } catch (Exception e) {
+            log.warn("按借阅记录恢复图书借阅热度失败，暂用上次落库的排行", e);
+            loadSnapshot();
+        }
+    }
+
+    private void restoreCounters() {
+        long start = System.currentTimeMillis();
+        LocalDate since = LocalDate.now().minusDays(WINDOW_DAYS - 1);
+        List<Map<String, Object>> rows = borrowRecordMapper.countDailyBorrowsSince(since.atStartOfDay());
+        Map<Long, Counter> restored = new HashMap<>();
+        for (Map<String, Object> row : rows) {
+            Long bookId = ((Number) row.get("book_id")).longValue();
+            LocalDate day = toLocalDate(row.get("borrow_day"));
+            int count = ((Number) row.get("borrow_count")).intValue();
+            restored.computeIfAbsent(bookId, id -> new Counter()).add(day.toEpochDay(), count);
+        }
+        // 聚合结果已包含此前已提交的借阅，替换掉等待期间累加的计数
+        counters.clear();
+        counters.putAll(restored);
+        lastCheckpointDay = LocalDate.now().toEpochDay();
+        loaded = true;
+        refreshTop();
+        log.info("图书借阅热度加载完成，图书{}本，耗时{}ms", counters.size(), System.currentTimeMillis() - start);
+    }
+
+    // 从快照表读取排行，计数恢复之前热门接口也有数据
+    private void loadSnapshot() {
+        weekTop = snapshotTop("borrow_count_7d");
+        monthTop = snapshotTop("borrow_count_30d");
+        lastRefreshDay = LocalDate.now().toEpochDay();
+        log.info("已加载上次落库的图书借阅热度排行，近30天{}本", monthTop.size());
+    }
+
+    private List<Long> snapshotTop(String column) {
+        QueryWrapper<BookPopularity> wrapper = new QueryWrapper<>();
+        wrapper.select("book_id")
+               .gt(column, 0)
+               .orderByDesc(column)
+               .last("LIMIT " + TOP_SIZE);
+        List<Long> ids = new ArrayList<>(TOP_SIZE);
+        for (BookPopularity popularity : bookPopularityMapper.selectList(wrapper)) {
+            ids.add(popularity.getBookId());
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    public void recordBorrow(Long bookId) {
+        counters.computeIfAbsent(bookId, id -> new Counter()).add(LocalDate.now().toEpochDay(), 1);
+        dirty.add(bookId);
+        topChanged = true;
+    }
+
+    public long getBorrowCount(Long bookId, int days) {
+        Counter counter = counters.get(bookId);
+        return counter != null ? counter.sum(LocalDate.now().toEpochDay(), days) : 0;
+    }
+
+    // 读取排行快照，days 为 7 时取近7天，其余取近30天
+    public List<Long> getTopBooks(int days, int limit) {
+        List<Long> top = days == WEEK_DAYS ? weekTop : monthTop;
+        return top.subList(0, Math.max(0, Math.min(limit, top.size())));
+    }
+
+    @Scheduled(fixedDelayString = "${library.popularity.refresh-interval-ms:60000}")
+    public void refreshIfChanged() {
+        if (!loaded) {
+            try {
+                restoreCounters();
+            } catch (Exception e) {
+                log.warn("恢复图书借阅热度失败，稍后重试: {}", e.getMessage());
+            }
+            return;
+        }
+        long today = LocalDate.now().toEpochDay();
+        if (topChanged || today != lastRefreshDay) {
+            refreshTop();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${library.popularity.checkpoint-interval-ms:300000}")
+    public void checkpoint() {
+        if (!loaded) {
+            return;
+        }
+        long today = LocalDate.now().toEpochDay();
+        // 跨天后窗口整体滑动，所有图书都需要重新落库
+        Collection<Long> bookIds = today != lastCheckpointDay ? new ArrayList<>(counters.keySet()) : new ArrayList<>(dirty);
+        if (bookIds.isEmpty()) {
+            return;
+        }
+        dirty.removeAll(bookIds);
+
+        List<BookPopularity> batch = new ArrayList<>(CHECKPOINT_BATCH_SIZE);
+        for (Long bookId : bookIds) {
+            Counter counter = counters.get(bookId);
+            BookPopularity popularity = new BookPopularity();
+            popularity.setBookId(bookId);
+            popularity.setBorrowCount7d((int) counter.sum(today, WEEK_DAYS));
+            popularity.setBorrowCount30d((int) counter.sum(today, WINDOW_DAYS));
+            batch.add(popularity);
+            if (batch.size() >= CHECKPOINT_BATCH_SIZE) {
+                writeCheckpoint(batch);
+            }
+        }
+        writeCheckpoint(batch);
+        lastCheckpointDay = today;
+    }
+
+    private void writeCheckpoint(List<BookPopularity> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            bookPopularityMapper.upsertBatch(batch);
+        } catch (Exception e) {
+            log.error("图书借阅热度落库失败", e);
+            batch.forEach(item -> dirty.add(item.getBookId()));
+        }
+        batch.clear();
+    }
+
+    private void refreshTop() {
+        topChanged = false;
+        long today = LocalDate.now().toEpochDay();
+        lastRefreshDay = today;
+        weekTop = topOf(today, WEEK_DAYS);
+        monthTop = topOf(today, WINDOW_DAYS);
+    }
+
+    private List<Long> topOf(long today, int days) {
+        PriorityQueue<long[]> heap = new PriorityQueue<>(TOP_SIZE + 1,
+                Comparator.<long[]>comparingLong(entry -> entry[1]).thenComparingLong(entry -> entry[0]));
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            long count = entry.getValue().sum(today, days);
+            if (count == 0) {
+                continue;
+            }
+            heap.offer(new long[]{entry.getKey(), count});
+            if (heap.size() > TOP_SIZE) {
+                heap.poll();
+            }
+        }
+        Long[] ids = new Long[heap.size()];
+        for (int i = ids.length - 1; i >= 0; i--) {
+            ids[i] = heap.poll()[0];
+        }
+        return Collections.unmodifiableList(Arrays.asList(ids));
+    }
+
+    private static LocalDate toLocalDate(Object value) {
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate();
+        }
+        if (value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        return LocalDate.parse(value.toString());
+    }
+
+    // 环形数组保存最近30天每天的借阅次数
+    private static final class Counter {
+        private final int[] counts = new int[WINDOW_DAYS];
+        private final long[] days = new long[WINDOW_DAYS];
+
+        private synchronized void add(long day, int count) {
+            int index = (int) (day % WINDOW_DAYS);
+            if (days[index] != day) {
+                days[index] = day;
+                counts[index] = 0;
+            }
+            counts[index] += count;
+        }
+
+        private synchronized long sum(long today, int window) {
+            long total = 0;
+            for (int i = 0; i < WINDOW_DAYS; i++) {
+                if (days[i] > today - window && days[i] <= today) {
+                    total += counts[i];
+                }
+            }
+            return total;
+        }
+    }
+}
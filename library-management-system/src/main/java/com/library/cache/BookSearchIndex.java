@@ -0,0 +1,178 @@
+package com.library.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.library.entity.Book;
+import com.library.mapper.BookMapper;
+import com.library.utils.TextTokenizer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// 图书全文检索的内存倒排索引，覆盖书名、作者、ISBN和描述，只收录上架图书
+@Slf4j
+@Component
+public class BookSearchIndex {
+
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    // 各字段命中的权重
+    private static final int WEIGHT_ISBN = 8;
+    private static final int WEIGHT_TITLE = 4;
+    private static final int WEIGHT_AUTHOR = 2;
+    private static final int WEIGHT_DESCRIPTION = 1;
+
+    @Resource
+    private BookMapper bookMapper;
+
+    // 词 -> (图书ID -> 权重)
+    private final ConcurrentMap<String, ConcurrentMap<Long, Integer>> postings = new ConcurrentHashMap<>();
+
+    // 图书ID -> 已收录的词，用于更新和删除
+    private final ConcurrentMap<Long, String[]> documents = new ConcurrentHashMap<>();
+
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        while (true) {
+            QueryWrapper<Book> wrapper = new QueryWrapper<>();
+            wrapper.select("id", "isbn", "title", "author", "description", "status")
+                   .eq("status", 1)
+                   .gt("id", lastId)
+                   .orderByAsc("id")
+                   .last("LIMIT " + BUILD_BATCH_SIZE);
+            List<Book> books = bookMapper.selectList(wrapper);
+            for (Book book : books) {
+                update(book);
+            }
+            if (books.size() < BUILD_BATCH_SIZE) {
+                break;
+            }
+            lastId = books.get(books.size() - 1).getId();
+        }
+        ready = true;
+        log.info("图书检索索引构建完成，图书{}本，词项{}个，耗时{}ms",
+                documents.size(), postings.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public synchronized void update(Book book) {
+        remove(book.getId());
+        if (book.getStatus() == null || book.getStatus() != 1) {
+            return;
+        }
+
+        Map<String, Integer> weights = new HashMap<>();
+        addTokens(weights, book.getIsbn(), WEIGHT_ISBN, false);
+        addTokens(weights, book.getTitle(), WEIGHT_TITLE, true);
+        addTokens(weights, book.getAuthor(), WEIGHT_AUTHOR, true);
+        addTokens(weights, book.getDescription(), WEIGHT_DESCRIPTION, false);
+
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), k -> new ConcurrentHashMap<>())
+                    .put(book.getId(), entry.getValue());
+        }
+        documents.put(book.getId(), weights.keySet().toArray(new String[0]));
+    }
+
+    public synchronized void remove(Long bookId) {
+        String[] tokens = documents.remove(bookId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            postings.computeIfPresent(token, (k, docs) -> {
+                docs.remove(bookId);
+                return docs.isEmpty() ? null : docs;
+            });
+        }
+    }
+
+    // 所有查询词都命中的图书按权重排序，权重相同时新书在前；返回总命中数和当前页的图书ID
+    public SearchResult search(String keyword, long offset, int limit) {
+        Set<String> tokens = TextTokenizer.tokenize(keyword, false);
+        if (tokens.isEmpty()) {
+            return new SearchResult(0, Collections.emptyList());
+        }
+
+        List<Map<Long, Integer>> lists = new ArrayList<>(tokens.size());
+        for (String token : tokens) {
+            Map<Long, Integer> docs = postings.get(token);
+            if (docs == null) {
+                return new SearchResult(0, Collections.emptyList());
+            }
+            lists.add(docs);
+        }
+        lists.sort(Comparator.comparingInt(Map::size));
+
+        Comparator<long[]> order = Comparator.<long[]>comparingLong(hit -> hit[1]).thenComparingLong(hit -> hit[0]);
+        int keep = (int) Math.min(offset + limit, Integer.MAX_VALUE);
+        // 堆的初始容量不超过候选数，偏移量再大也不会预先分配大数组
+        PriorityQueue<long[]> top = new PriorityQueue<>(Math.max(Math.min(keep, lists.get(0).size()), 1), order);
+        long total = 0;
+        for (Map.Entry<Long, Integer> entry : lists.get(0).entrySet()) {
+            long score = entry.getValue();
+            boolean matched = true;
+            for (int i = 1; i < lists.size() && matched; i++) {
+                Integer weight = lists.get(i).get(entry.getKey());
+                if (weight == null) {
+                    matched = false;
+                } else {
+                    score += weight;
+                }
+            }
+            if (!matched) {
+                continue;
+            }
+            total++;
+            if (keep == 0) {
+                continue;
+            }
+            long[] hit = {entry.getKey(), score};
+            if (top.size() < keep) {
+                top.offer(hit);
+            } else if (order.compare(hit, top.peek()) > 0) {
+                top.poll();
+                top.offer(hit);
+            }
+        }
+
+        List<Long> ids = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ids.add(top.poll()[0]);
+        }
+        Collections.reverse(ids);
+        List<Long> page = offset >= ids.size() ? Collections.emptyList() : ids.subList((int) offset, ids.size());
+        return new SearchResult(total, page);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    private static void addTokens(Map<String, Integer> weights, String text, int weight, boolean withUnigrams) {
+        for (String token : TextTokenizer.tokenize(text, withUnigrams)) {
+            weights.merge(token, weight, Integer::sum);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SearchResult {
+        private final long total;
+        private final List<Long> ids;
+    }
+}
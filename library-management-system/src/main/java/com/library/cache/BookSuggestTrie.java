@@ -0,0 +1,425 @@
+package com.library.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.library.entity.Book;
+import com.library.mapper.BookMapper;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// 书名、作者、ISBN的前缀联想：压缩前缀树，只有一个子节点的链合并为一条边，子节点用有序数组存放，
+// 每个节点缓存子树中按借阅热度排序的候选图书。写操作加锁并在锁内维护候选，读操作只读取缓存的候选
+@Slf4j
+@Component
+public class BookSuggestTrie {
+
+    private static final int BUILD_BATCH_SIZE = 1000;
+
+    // 每个节点缓存的候选数量，也是单次联想返回的上限
+    public static final int TOP_K = 10;
+
+    private static final long[] EMPTY_IDS = new long[0];
+
+    @Resource
+    private BookMapper bookMapper;
+
+    @Resource
+    private BookPopularityTracker bookPopularityTracker;
+
+    private volatile Node root = new Node("", EMPTY_IDS);
+
+    // 图书ID -> 书名和已收录的词
+    private volatile ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong nodeCount = new AtomicLong(1);
+
+    // 候选排序：近30天借阅次数多的在前，次数相同时ID大的新书在前，新增的图书立即出现在候选中
+    private final Comparator<Long> ranking = Comparator.comparingLong((Long id) -> score(id)).reversed()
+            .thenComparing(Comparator.reverseOrder());
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        rebuild();
+    }
+
+    // 定期全量重建，使节点候选顺序跟上借阅热度的变化
+    @Scheduled(fixedDelayString = "${library.suggest.rebuild-interval-ms:600000}",
+               initialDelayString = "${library.suggest.rebuild-interval-ms:600000}")
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        Node newRoot = new Node("", EMPTY_IDS);
+        ConcurrentMap<Long, Entry> newEntries = new ConcurrentHashMap<>();
+        nodeCount.set(1);
+        long lastId = 0;
+        while (true) {
+            QueryWrapper<Book> wrapper = new QueryWrapper<>();
+            wrapper.select("id", "isbn", "title", "author", "status")
+                   .eq("status", 1)
+                   .gt("id", lastId)
+                   .orderByAsc("id")
+                   .last("LIMIT " + BUILD_BATCH_SIZE);
+            List<Book> books = bookMapper.selectList(wrapper);
+            for (Book book : books) {
+                add(newRoot, newEntries, book);
+            }
+            if (books.size() < BUILD_BATCH_SIZE) {
+                break;
+            }
+            lastId = books.get(books.size() - 1).getId();
+        }
+        root = newRoot;
+        entries = newEntries;
+        log.info("图书联想索引构建完成，图书{}本，节点{}个，耗时{}ms",
+                entries.size(), nodeCount.get(), System.currentTimeMillis() - start);
+    }
+
+    public synchronized void update(Book book) {
+        remove(book.getId());
+        if (book.getStatus() != null && book.getStatus() == 1) {
+            add(root, entries, book);
+        }
+    }
+
+    // 沿每个词的路径自下而上处理：删除不再有图书的叶子，合并只剩一个子节点的中间节点，
+    // 候选中含该图书的节点由本节点图书和子节点候选重新选出，不遍历子树
+    public synchronized void remove(Long bookId) {
+        Entry entry = entries.remove(bookId);
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.terms) {
+            List<Node> path = path(root, term);
+            if (path == null) {
+                continue;
+            }
+            Node last = path.get(path.size() - 1);
+            last.ids = without(last.ids, bookId);
+            for (int i = path.size() - 1; i > 0; i--) {
+                Node node = path.get(i);
+                Node parent = path.get(i - 1);
+                Node[] children = node.branch.children;
+                if (node.ids.length == 0 && children.length == 0) {
+                    parent.removeChild(node.label.charAt(0));
+                    nodeCount.decrementAndGet();
+                } else if (node.ids.length == 0 && children.length == 1) {
+                    parent.putChild(node.label.charAt(0), children[0].relabel(node.label + children[0].label));
+                    nodeCount.decrementAndGet();
+                } else if (contains(node.top, bookId)) {
+                    node.top = collectTop(node, bookId);
+                }
+            }
+        }
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        String term = normalize(prefix);
+        if (term.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Node node = find(root, term);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+
+        long[] top = node.top;
+        List<Long> ids = new ArrayList<>(top.length);
+        for (long id : top) {
+            ids.add(id);
+        }
+        ids.sort(ranking);
+
+        List<Suggestion> suggestions = new ArrayList<>(Math.min(limit, ids.size()));
+        for (Long id : ids) {
+            Entry entry = entries.get(id);
+            if (entry != null) {
+                suggestions.add(new Suggestion(id, entry.title));
+                if (suggestions.size() >= limit) {
+                    break;
+                }
+            }
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getNodeCount() {
+        return nodeCount.get();
+    }
+
+    private void add(Node root, ConcurrentMap<Long, Entry> entries, Book book) {
+        Set<String> terms = new LinkedHashSet<>();
+        terms.add(normalize(book.getTitle()));
+        terms.add(normalize(book.getAuthor()));
+        terms.add(normalize(book.getIsbn()));
+        terms.remove("");
+
+        long bookId = book.getId();
+        for (String term : terms) {
+            Node node = root;
+            int i = 0;
+            while (i < term.length()) {
+                Node child = node.child(term.charAt(i));
+                if (child == null) {
+                    // 剩余部分整体作为一条边
+                    child = new Node(term.substring(i), new long[]{bookId});
+                    node.putChild(term.charAt(i), child);
+                    nodeCount.incrementAndGet();
+                    node = child;
+                    break;
+                }
+                int common = commonPrefix(child.label, term, i);
+                if (common < child.label.length()) {
+                    child = split(node, child, common);
+                }
+                offerTop(child, bookId);
+                i += common;
+                node = child;
+            }
+            node.ids = with(node.ids, bookId);
+        }
+        entries.put(bookId, new Entry(book.getTitle(), terms.toArray(new String[0])));
+    }
+
+    // 在公共前缀处拆分边：新节点承接公共前缀，原节点以剩余部分挂在其下
+    private Node split(Node parent, Node child, int common) {
+        Node tail = child.relabel(child.label.substring(common));
+        Node middle = new Node(child.label.substring(0, common), EMPTY_IDS);
+        middle.top = child.top;
+        middle.branch = new Branch(new char[]{tail.label.charAt(0)}, new Node[]{tail});
+        parent.putChild(child.label.charAt(0), middle);
+        nodeCount.incrementAndGet();
+        return middle;
+    }
+
+    // 前缀可以止于某条边的中间，此时该边指向的子树都匹配
+    private static Node find(Node root, String term) {
+        Node node = root;
+        int i = 0;
+        while (i < term.length()) {
+            node = node.child(term.charAt(i));
+            if (node == null) {
+                return null;
+            }
+            int length = Math.min(node.label.length(), term.length() - i);
+            if (!term.regionMatches(i, node.label, 0, length)) {
+                return null;
+            }
+            i += length;
+        }
+        return node;
+    }
+
+    // 已收录的词从根到词尾经过的节点
+    private static List<Node> path(Node root, String term) {
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < term.length()) {
+            node = node.child(term.charAt(i));
+            if (node == null || !term.startsWith(node.label, i)) {
+                return null;
+            }
+            i += node.label.length();
+            path.add(node);
+        }
+        return path;
+    }
+
+    private static int commonPrefix(String label, String term, int offset) {
+        int length = Math.min(label.length(), term.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == term.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // 按近30天借阅次数排序
+    private long score(long bookId) {
+        return bookPopularityTracker.getBorrowCount(bookId, BookPopularityTracker.WINDOW_DAYS);
+    }
+
+    private void offerTop(Node node, long bookId) {
+        long[] top = node.top;
+        if (contains(top, bookId)) {
+            return;
+        }
+        if (top.length < TOP_K) {
+            node.top = with(top, bookId);
+            return;
+        }
+        int weakest = 0;
+        for (int i = 1; i < top.length; i++) {
+            if (ranking.compare(top[i], top[weakest]) > 0) {
+                weakest = i;
+            }
+        }
+        if (ranking.compare(bookId, top[weakest]) < 0) {
+            long[] replaced = top.clone();
+            replaced[weakest] = bookId;
+            node.top = replaced;
+        }
+    }
+
+    // 子节点的候选已是各自子树的前 TOP_K 本，与本节点的图书合并后即为本节点子树的前 TOP_K 本
+    private long[] collectTop(Node node, long excluded) {
+        Set<Long> candidates = new HashSet<>();
+        for (long id : node.ids) {
+            candidates.add(id);
+        }
+        for (Node child : node.branch.children) {
+            for (long id : child.top) {
+                candidates.add(id);
+            }
+        }
+        candidates.remove(excluded);
+        return candidates.stream().sorted(ranking).limit(TOP_K).mapToLong(Long::longValue).toArray();
+    }
+
+    // ISBN 收录时去掉连字符，书名和作者同样处理，输入带连字符的前缀也能命中
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().toLowerCase().replace("-", "").replaceAll("\\s+", " ");
+    }
+
+    private static boolean contains(long[] ids, long id) {
+        for (long existing : ids) {
+            if (existing == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long[] with(long[] ids, long id) {
+        if (contains(ids, id)) {
+            return ids;
+        }
+        long[] result = Arrays.copyOf(ids, ids.length + 1);
+        result[ids.length] = id;
+        return result;
+    }
+
+    private static long[] without(long[] ids, long id) {
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] == id) {
+                if (ids.length == 1) {
+                    return EMPTY_IDS;
+                }
+                long[] result = new long[ids.length - 1];
+                System.arraycopy(ids, 0, result, 0, i);
+                System.arraycopy(ids, i + 1, result, i, ids.length - i - 1);
+                return result;
+            }
+        }
+        return ids;
+    }
+
+    // 叶子节点的候选与其图书共用同一个数组，两者都只整体替换，不原地修改
+    private static final class Node {
+        private final String label;
+        private volatile Branch branch = Branch.EMPTY;
+        private volatile long[] ids;
+        private volatile long[] top;
+
+        private Node(String label, long[] ids) {
+            this.label = label;
+            this.ids = ids;
+            this.top = ids;
+        }
+
+        private Node child(char c) {
+            Branch b = branch;
+            int index = Arrays.binarySearch(b.keys, c);
+            return index >= 0 ? b.children[index] : null;
+        }
+
+        // 更换边上的字符串：拆分和合并边时复制出新节点，读线程看到的节点不会被修改
+        private Node relabel(String newLabel) {
+            Node copy = new Node(newLabel, ids);
+            copy.top = top;
+            copy.branch = branch;
+            return copy;
+        }
+
+        // 写操作已在外层同步，子节点整体替换，读线程无需加锁
+        private void putChild(char c, Node child) {
+            Branch b = branch;
+            int index = Arrays.binarySearch(b.keys, c);
+            if (index >= 0) {
+                Node[] children = b.children.clone();
+                children[index] = child;
+                branch = new Branch(b.keys, children);
+                return;
+            }
+            int insertAt = -index - 1;
+            int length = b.keys.length;
+            char[] keys = new char[length + 1];
+            Node[] children = new Node[length + 1];
+            System.arraycopy(b.keys, 0, keys, 0, insertAt);
+            System.arraycopy(b.children, 0, children, 0, insertAt);
+            System.arraycopy(b.keys, insertAt, keys, insertAt + 1, length - insertAt);
+            System.arraycopy(b.children, insertAt, children, insertAt + 1, length - insertAt);
+            keys[insertAt] = c;
+            children[insertAt] = child;
+            branch = new Branch(keys, children);
+        }
+
+        private void removeChild(char c) {
+            Branch b = branch;
+            int index = Arrays.binarySearch(b.keys, c);
+            if (index < 0) {
+                return;
+            }
+            int length = b.keys.length;
+            if (length == 1) {
+                branch = Branch.EMPTY;
+                return;
+            }
+            char[] keys = new char[length - 1];
+            Node[] children = new Node[length - 1];
+            System.arraycopy(b.keys, 0, keys, 0, index);
+            System.arraycopy(b.children, 0, children, 0, index);
+            System.arraycopy(b.keys, index + 1, keys, index, length - index - 1);
+            System.arraycopy(b.children, index + 1, children, index, length - index - 1);
+            branch = new Branch(keys, children);
+        }
+    }
+
+    @AllArgsConstructor
+    private static final class Branch {
+        private static final Branch EMPTY = new Branch(new char[0], new Node[0]);
+
+        private final char[] keys;
+        private final Node[] children;
+    }
+
+    @AllArgsConstructor
+    private static final class Entry {
+        private final String title;
+        private final String[] terms;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Suggestion {
+        private final Long id;
+        private final String title;
+    }
+}
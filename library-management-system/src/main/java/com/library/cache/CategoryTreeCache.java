@@ -0,0 +1,103 @@
+package com.library.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.library.entity.BookCategory;
+import com.library.mapper.BookCategoryMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// 分类树快照：整棵树连同父子关系和每个分类的后代ID集合一次性构建，读取时不访问数据库。
+// 分类增删改后重建，另有定时重建兜底其他实例的修改。返回的分类对象为共享只读数据，调用方不应修改。
+@Slf4j
+@Component
+public class CategoryTreeCache {
+
+    @Resource
+    private BookCategoryMapper bookCategoryMapper;
+
+    private volatile Snapshot snapshot = new Snapshot(Collections.emptyList());
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${library.category.refresh-interval-ms:300000}",
+               initialDelayString = "${library.category.refresh-interval-ms:300000}")
+    public synchronized void refresh() {
+        QueryWrapper<BookCategory> wrapper = new QueryWrapper<>();
+        wrapper.orderByAsc("sort_order", "id");
+        snapshot = new Snapshot(bookCategoryMapper.selectList(wrapper));
+        log.debug("分类树快照已刷新，共{}个分类", snapshot.byId.size());
+    }
+
+    public List<BookCategory> getAllCategories() {
+        return snapshot.all;
+    }
+
+    public List<BookCategory> getActiveCategories() {
+        return snapshot.active;
+    }
+
+    public BookCategory get(Long id) {
+        return snapshot.byId.get(id);
+    }
+
+    public List<BookCategory> getChildren(Long parentId) {
+        return snapshot.children.getOrDefault(parentId, Collections.emptyList());
+    }
+
+    // 分类自身及全部后代的ID，分类不存在时只包含传入的ID
+    public Set<Long> getDescendantIds(Long id) {
+        Set<Long> ids = snapshot.descendants.get(id);
+        return ids != null ? ids : Collections.singleton(id);
+    }
+
+    private static final class Snapshot {
+        private final List<BookCategory> all;
+        private final List<BookCategory> active;
+        private final Map<Long, BookCategory> byId;
+        private final Map<Long, List<BookCategory>> children;
+        private final Map<Long, Set<Long>> descendants;
+
+        private Snapshot(List<BookCategory> categories) {
+            all = Collections.unmodifiableList(categories);
+            active = Collections.unmodifiableList(categories.stream()
+                    .filter(category -> Integer.valueOf(1).equals(category.getStatus()))
+                    .collect(Collectors.toList()));
+            byId = new HashMap<>(categories.size() * 2);
+            children = new HashMap<>();
+            for (BookCategory category : categories) {
+                byId.put(category.getId(), category);
+                Long parentId = category.getParentId() != null ? category.getParentId() : 0L;
+                children.computeIfAbsent(parentId, id -> new ArrayList<>()).add(category);
+            }
+            descendants = new HashMap<>(categories.size() * 2);
+            for (BookCategory category : categories) {
+                descendants.put(category.getId(), Collections.unmodifiableSet(collectDescendants(category.getId())));
+            }
+        }
+
+        // 广度优先收集后代，数据中存在环时每个分类只访问一次
+        private Set<Long> collectDescendants(Long rootId) {
+            Set<Long> ids = new LinkedHashSet<>();
+            Deque<Long> queue = new ArrayDeque<>();
+            queue.add(rootId);
+            while (!queue.isEmpty()) {
+                Long id = queue.poll();
+                if (ids.add(id)) {
+                    for (BookCategory child : children.getOrDefault(id, Collections.emptyList())) {
+                        queue.add(child.getId());
+                    }
+                }
+            }
+            return ids;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.library.cache;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.library.entity.BorrowRecord;
+import com.library.mapper.BorrowRecordMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// 借阅中记录按应还时间排序的内存索引，逾期扫描只需取出已到期的部分
+@Slf4j
+@Component
+public class LoanDueIndex {
+
+    private static final int LOAD_BATCH_SIZE = 5000;
+
+    @Resource
+    private BorrowRecordMapper borrowRecordMapper;
+
+    // (应还时间毫秒, 借阅记录ID)，按应还时间排序
+    private final NavigableSet<long[]> queue = new ConcurrentSkipListSet<>(
+            Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+
+    // 借阅记录ID -> 当前应还时间毫秒
+    private final ConcurrentMap<Long, Long> dueTimes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        long start = System.currentTimeMillis();
+        long lastId = 0;
+        while (true) {
+            QueryWrapper<BorrowRecord> wrapper = new QueryWrapper<>();
+            wrapper.select("id", "due_date")
+                   .eq("status", 1)
+                   .gt("id", lastId)
+                   .orderByAsc("id")
+                   .last("LIMIT " + LOAD_BATCH_SIZE);
+            List<BorrowRecord> records = borrowRecordMapper.selectList(wrapper);
+            for (BorrowRecord record : records) {
+                put(record.getId(), record.getDueDate());
+            }
+            if (records.size() < LOAD_BATCH_SIZE) {
+                break;
+            }
+            lastId = records.get(records.size() - 1).getId();
+        }
+        log.info("借阅到期索引加载完成，借阅中记录{}条，耗时{}ms", dueTimes.size(), System.currentTimeMillis() - start);
+    }
+
+    public synchronized void put(Long recordId, LocalDateTime dueDate) {
+        long due = toMillis(dueDate);
+        Long previous = dueTimes.put(recordId, due);
+        if (previous != null) {
+            queue.remove(new long[]{previous, recordId});
+        }
+        queue.add(new long[]{due, recordId});
+    }
+
+    public synchronized void remove(Long recordId) {
+        Long previous = dueTimes.remove(recordId);
+        if (previous != null) {
+            queue.remove(new long[]{previous, recordId});
+        }
+    }
+
+    // 取出应还时间早于 now 的记录，最多 limit 条
+    public synchronized List<Long> pollDue(LocalDateTime now, int limit) {
+        long nowMillis = toMillis(now);
+        List<Long> ids = new ArrayList<>();
+        while (ids.size() < limit && !queue.isEmpty() && queue.first()[0] < nowMillis) {
+            long[] entry = queue.pollFirst();
+            dueTimes.remove(entry[1]);
+            ids.add(entry[1]);
+        }
+        return ids;
+    }
+
+    public int size() {
+        return dueTimes.size();
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
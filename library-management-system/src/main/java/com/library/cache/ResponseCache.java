@@ -0,0 +1,165 @@
+package com.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+// 匿名公开接口的响应缓存：保存已序列化的响应正文及其 gzip 压缩结果，按路径和规范化后的查询参数区分。
+// 图书或分类有写操作时整体失效，借阅导致的可借数量变化由有效期兜底。
+@Component
+public class ResponseCache {
+
+    private static final Set<String> CACHEABLE_PATHS = new HashSet<>(Arrays.asList(
+            "/api/books/list", "/api/books/search", "/api/books/popular", "/api/books/suggest",
+            "/api/categories/list"));
+
+    // /api/categories/all 需要管理员权限，不能缓存
+    private static final Pattern CATEGORY_DETAIL = Pattern.compile("/api/categories/\\d+");
+
+    private static final String[] WRITE_PREFIXES = {"/api/books", "/api/categories"};
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.response-cache.ttl-ms:30000}")
+    private long ttlMillis;
+
+    @Value("${library.response-cache.maximum-bytes:33554432}")
+    private long maximumBytes;
+
+    private Cache<String, Entry> cache;
+
+    // 每次失效递增，生成响应期间发生过失效的结果不写入缓存
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+    private final AtomicLong bytesSaved = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .maximumWeight(maximumBytes)
+                .weigher((String key, Entry entry) -> key.length() + entry.body.length + entry.gzipBody.length)
+                .build();
+
+        FunctionCounter.builder("library.response.cache.requests", hits, AtomicLong::get)
+                .tag("result", "hit").register(meterRegistry);
+        FunctionCounter.builder("library.response.cache.requests", misses, AtomicLong::get)
+                .tag("result", "miss").register(meterRegistry);
+        FunctionCounter.builder("library.response.cache.requests", notModified, AtomicLong::get)
+                .tag("result", "not_modified").register(meterRegistry);
+        FunctionCounter.builder("library.response.cache.bytes.saved", bytesSaved, AtomicLong::get)
+                .baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("library.response.cache.size", this, responseCache -> responseCache.cache.estimatedSize())
+                .register(meterRegistry);
+    }
+
+    public boolean isCacheable(String path) {
+        return CACHEABLE_PATHS.contains(path) || CATEGORY_DETAIL.matcher(path).matches();
+    }
+
+    public boolean isInvalidatedBy(String path) {
+        for (String prefix : WRITE_PREFIXES) {
+            if (path.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 路径 + 按名称排序的查询参数，空值参数与未传等价
+    public String key(String path, HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(path);
+        char separator = '?';
+        for (Map.Entry<String, String[]> param : new TreeMap<>(request.getParameterMap()).entrySet()) {
+            for (String value : param.getValue()) {
+                if (value != null && !value.isEmpty()) {
+                    key.append(separator).append(param.getKey()).append('=').append(value);
+                    separator = '&';
+                }
+            }
+        }
+        return key.toString();
+    }
+
+    public Entry get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        (entry != null ? hits : misses).incrementAndGet();
+        return entry;
+    }
+
+    public Entry put(String key, String contentType, byte[] body, long expectedGeneration) {
+        Entry entry = new Entry(contentType, body);
+        if (generation.get() == expectedGeneration) {
+            cache.put(key, entry);
+        }
+        return entry;
+    }
+
+    public long generation() {
+        return generation.get();
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    public void recordNotModified(Entry entry) {
+        notModified.incrementAndGet();
+        bytesSaved.addAndGet(entry.body.length);
+    }
+
+    public void recordGzip(Entry entry) {
+        bytesSaved.addAndGet(entry.body.length - entry.gzipBody.length);
+    }
+
+    @Getter
+    public static final class Entry {
+        private final String contentType;
+        private final byte[] body;
+        private final byte[] gzipBody;
+        private final String etag;
+        private final String gzipEtag;
+
+        private Entry(String contentType, byte[] body) {
+            this.contentType = contentType;
+            this.body = body;
+            this.gzipBody = gzip(body);
+            String hash = DigestUtils.md5DigestAsHex(body);
+            this.etag = "\"" + hash + "\"";
+            this.gzipEtag = "\"" + hash + "-gz\"";
+        }
+
+        private static byte[] gzip(byte[] body) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(body.length / 4, 64));
+            try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+                gzip.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return out.toByteArray();
+        }
+    }
+}
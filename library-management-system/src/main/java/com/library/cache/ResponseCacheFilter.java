@@ -0,0 +1,100 @@
+package com.library.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// 放在安全过滤链中 CorsFilter 之后，命中缓存时跳过后续认证和控制器，直接输出缓存的正文
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheFilter(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            if (!HttpMethod.OPTIONS.matches(request.getMethod()) && responseCache.isInvalidatedBy(path)
+                    && response.getStatus() < 400) {
+                responseCache.invalidateAll();
+            }
+            return;
+        }
+
+        if (!responseCache.isCacheable(path)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = responseCache.key(path, request);
+        ResponseCache.Entry entry = responseCache.get(key);
+        if (entry == null) {
+            long generation = responseCache.generation();
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() != HttpServletResponse.SC_OK || wrapper.getContentType() == null
+                    || !wrapper.getContentType().startsWith("application/json")) {
+                wrapper.copyBodyToResponse();
+                return;
+            }
+            entry = responseCache.put(key, wrapper.getContentType(), wrapper.getContentAsByteArray(), generation);
+        }
+        write(entry, request, response);
+    }
+
+    private void write(ResponseCache.Entry entry, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip")
+                && entry.getGzipBody().length < entry.getBody().length;
+        String etag = gzip ? entry.getGzipEtag() : entry.getEtag();
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        // 允许客户端保存但每次须用 ETag 重新验证
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            responseCache.recordNotModified(entry);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        byte[] body = entry.getBody();
+        if (gzip) {
+            body = entry.getGzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            responseCache.recordGzip(entry);
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.getContentType());
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*") || value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,19 @@
+package com.library.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 借阅结果，失败时区分原因，同时用作借阅结果计数指标的标签
+@Getter
+@AllArgsConstructor
+public enum BorrowOutcome {
+
+    SUCCESS("借阅成功"),
+    BOOK_NOT_FOUND("图书不存在"),
+    NO_AVAILABLE_COPY("图书暂无可借副本"),
+    USER_DISABLED("用户不存在或已被禁用"),
+    ALREADY_BORROWED("已借阅该书且未归还"),
+    ERROR("借阅失败，请重试");
+
+    private final String message;
+}
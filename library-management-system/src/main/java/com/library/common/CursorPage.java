@@ -0,0 +1,34 @@
+package com.library.common;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+// 游标分页结果，按(排序列, ID)定位下一页，不需要偏移量和总数统计
+@Data
+public class CursorPage<T> {
+
+    private List<T> records;
+    private Integer size;
+    private String nextCursor;
+    private Boolean hasMore;
+    private Long total; // 仅在请求总数时返回
+
+    // rows 需多查一条，用于判断是否还有下一页
+    public static <T> CursorPage<T> of(List<T> rows, int size,
+                                       Function<T, LocalDateTime> sortValue, Function<T, Long> id) {
+        CursorPage<T> page = new CursorPage<>();
+        boolean hasMore = rows.size() > size;
+        List<T> records = hasMore ? rows.subList(0, size) : rows;
+        page.setRecords(records);
+        page.setSize(size);
+        page.setHasMore(hasMore);
+        if (hasMore) {
+            T last = records.get(records.size() - 1);
+            page.setNextCursor(PageCursor.encode(sortValue.apply(last), id.apply(last)));
+        }
+        return page;
+    }
+}
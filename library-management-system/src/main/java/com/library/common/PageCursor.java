@@ -0,0 +1,50 @@
+package com.library.common;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Base64;
+
+// 游标内容为 "排序列毫秒:ID" 的 Base64 编码，空字符串表示第一页
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    private final LocalDateTime sortValue;
+    private final Long id;
+
+    public static String encode(LocalDateTime sortValue, Long id) {
+        long millis = sortValue.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        String raw = millis + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 第一页返回 null，格式错误时抛出 IllegalArgumentException
+    public static PageCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            long millis = Long.parseLong(raw.substring(0, separator));
+            long id = Long.parseLong(raw.substring(separator + 1));
+            return new PageCursor(LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()), id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    public static boolean isValid(String cursor) {
+        try {
+            decode(cursor);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
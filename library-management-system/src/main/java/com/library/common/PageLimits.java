@@ -0,0 +1,16 @@
+package com.library.common;
+
+// 分页参数的取值范围，限制公开接口单次查询的数据量
+public final class PageLimits {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public static final String INVALID_SIZE_MESSAGE = "每页数量须在1到" + MAX_PAGE_SIZE + "之间";
+
+    private PageLimits() {
+    }
+
+    public static boolean isValidSize(Integer size) {
+        return size != null && size >= 1 && size <= MAX_PAGE_SIZE;
+    }
+}
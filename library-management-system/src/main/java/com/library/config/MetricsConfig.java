@@ -0,0 +1,42 @@
+package com.library.config;
+
+import com.library.cache.*;
+import com.library.utils.JwtUtils;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+// 内存池、缓存和索引的状态指标
+@Configuration
+public class MetricsConfig {
+
+    // 缓存组件启动时就要查询数据库，而 Mapper 的计时拦截器依赖注册表，这里延迟注入以免形成循环依赖；
+    // 注入的是代理对象，仪表需要强引用，否则代理被回收后读数为 NaN
+    @Bean
+    public MeterBinder libraryCacheMetrics(@Lazy BookCopyPool bookCopyPool, @Lazy BookDetailCache bookDetailCache,
+                                           @Lazy BookSearchIndex bookSearchIndex, @Lazy BookSuggestTrie bookSuggestTrie,
+                                           @Lazy LoanDueIndex loanDueIndex, @Lazy JwtUtils jwtUtils) {
+        return registry -> {
+            Gauge.builder("library.copy.pool.books", bookCopyPool, BookCopyPool::size)
+                    .strongReference(true)
+                    .description("已加载副本池的图书数").register(registry);
+            Gauge.builder("library.book.detail.cache.size", bookDetailCache, BookDetailCache::size)
+                    .strongReference(true)
+                    .register(registry);
+            Gauge.builder("library.search.index.books", bookSearchIndex, BookSearchIndex::size)
+                    .strongReference(true)
+                    .register(registry);
+            Gauge.builder("library.suggest.trie.nodes", bookSuggestTrie, BookSuggestTrie::getNodeCount)
+                    .strongReference(true)
+                    .register(registry);
+            Gauge.builder("library.loan.due.index.size", loanDueIndex, LoanDueIndex::size)
+                    .strongReference(true)
+                    .register(registry);
+            Gauge.builder("library.jwt.cache.size", jwtUtils, JwtUtils::getCachedTokenCount)
+                    .strongReference(true)
+                    .register(registry);
+        };
+    }
+}
@@ -2,17 +2,69 @@ package com.library.config;
 
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
-import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.library.interceptor.CountCachingPaginationInnerInterceptor;
+import com.library.interceptor.StatementBudgetFilter;
+import com.library.interceptor.StatementBudgetInterceptor;
+import com.library.interceptor.StatementReport;
+import com.library.interceptor.StatementTimingInterceptor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 
 @Configuration
 public class MyBatisPlusConfig {
 
     @Bean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public CountCachingPaginationInnerInterceptor paginationInnerInterceptor(
+            @Value("${library.page-count.ttl-ms:30000}") long ttlMillis,
+            @Value("${library.page-count.maximum-size:10000}") long maximumSize,
+            MeterRegistry meterRegistry) {
+        CountCachingPaginationInnerInterceptor interceptor =
+                new CountCachingPaginationInnerInterceptor(DbType.MYSQL, ttlMillis, maximumSize);
+        FunctionCounter.builder("library.page.count.cache", interceptor, CountCachingPaginationInnerInterceptor::getHits)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("library.page.count.cache", interceptor, CountCachingPaginationInnerInterceptor::getMisses)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        Gauge.builder("library.page.count.cache.size", interceptor, CountCachingPaginationInnerInterceptor::getSize)
+                .register(meterRegistry);
+        return interceptor;
+    }
+
+    @Bean
+    public MybatisPlusInterceptor mybatisPlusInterceptor(CountCachingPaginationInnerInterceptor paginationInnerInterceptor) {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
-        interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
+        interceptor.addInnerInterceptor(paginationInnerInterceptor);
         return interceptor;
     }
-}
\ No newline at end of file
+
+    // 记录每条 Mapper 语句的耗时，替代逐条打印 SQL 的 StdOutImpl
+    @Bean
+    public StatementTimingInterceptor statementTimingInterceptor(MeterRegistry meterRegistry) {
+        return new StatementTimingInterceptor(meterRegistry);
+    }
+
+    @Bean
+    public StatementBudgetInterceptor statementBudgetInterceptor(
+            StatementReport statementReport,
+            @Value("${library.sql.slow-threshold-ms:200}") long slowThresholdMillis) {
+        return new StatementBudgetInterceptor(statementReport, slowThresholdMillis);
+    }
+
+    // 包住整个请求（含安全过滤链），权限表达式里的查询也计入
+    @Bean
+    public FilterRegistrationBean<StatementBudgetFilter> statementBudgetFilter(
+            StatementReport statementReport,
+            @Value("${library.sql.statement-budget:10}") int statementBudget) {
+        FilterRegistrationBean<StatementBudgetFilter> registration =
+                new FilterRegistrationBean<>(new StatementBudgetFilter(statementReport, statementBudget));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -1,8 +1,11 @@
 package com.library.config;
 
+import com.library.cache.ResponseCache;
+import com.library.cache.ResponseCacheFilter;
 import com.library.security.JwtAuthenticationEntryPoint;
 import com.library.security.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,6 +18,7 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.web.filter.CorsFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -27,9 +31,14 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    @Autowired
+    private ResponseCache responseCache;
+
+    // 调整强度后，旧强度的哈希在用户下次登录时自动重新计算；
+    // 静态方法不依赖配置类实例，密码哈希服务注入它时不会与 JWT 过滤器形成循环依赖
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public static PasswordEncoder passwordEncoder(@Value("${library.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
@@ -43,14 +52,17 @@ public class SecurityConfig {
             .cors().and()
             .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS).and()
             .authorizeHttpRequests(authz -> authz
-                .requestMatchers("/api/auth/**").permitAll()
-                .requestMatchers("/api/books/list").permitAll()
-                .requestMatchers("/api/books/search").permitAll()
-                .requestMatchers("/api/books/popular").permitAll()
-                .requestMatchers("/api/categories/**").permitAll()
+                .antMatchers("/api/auth/**").permitAll()
+                .antMatchers("/api/books/list").permitAll()
+                .antMatchers("/api/books/search").permitAll()
+                .antMatchers("/api/books/popular").permitAll()
+                .antMatchers("/api/books/suggest").permitAll()
+                .antMatchers("/api/categories/**").permitAll()
+                .antMatchers("/actuator/**").permitAll()
                 .anyRequest().authenticated()
             )
             .exceptionHandling().authenticationEntryPoint(jwtAuthenticationEntryPoint).and()
+            .addFilterAfter(new ResponseCacheFilter(responseCache), CorsFilter.class)
             .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
@@ -1,19 +1,26 @@
 package com.library.controller;
 
 import com.library.common.Result;
+import com.library.dto.LoginProfile;
 import com.library.entity.Admin;
 import com.library.entity.User;
+import com.library.security.LoginAttemptLimiter;
+import com.library.security.PasswordHashingService;
+import com.library.security.TokenRevocationList;
 import com.library.service.AdminService;
 import com.library.service.UserService;
+import com.library.task.LastLoginTimeFlusher;
 import com.library.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -29,7 +36,16 @@ public class AuthController {
     private JwtUtils jwtUtils;
 
     @Resource
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHashingService passwordHashingService;
+
+    @Resource
+    private LoginAttemptLimiter loginAttemptLimiter;
+
+    @Resource
+    private LastLoginTimeFlusher lastLoginTimeFlusher;
+
+    @Resource
+    private TokenRevocationList tokenRevocationList;
 
     @Data
     public static class LoginRequest {
@@ -38,52 +54,136 @@ public class AuthController {
         private String type; // user 或 admin
     }
 
+    @Data
+    public static class RefreshRequest {
+        private String refreshToken;
+    }
+
+    // 哈希校验在专用线程池中执行，不占用请求线程，之后的写库和签发token在通用线程池中继续；
+    // 尝试过于频繁或线程池饱和时返回429。
+    // 只读取认证所需的列，响应中返回精简的账户信息，不含密码哈希
     @PostMapping("/login")
-    public Result<Map<String, Object>> login(@RequestBody LoginRequest loginRequest) {
+    public CompletableFuture<Result<Map<String, Object>>> login(@RequestBody LoginRequest loginRequest,
+                                                                HttpServletRequest request) {
         String username = loginRequest.getUsername();
         String password = loginRequest.getPassword();
         String type = loginRequest.getType();
+        String ip = request.getRemoteAddr();
+
+        if (!loginAttemptLimiter.tryAcquire(username, ip)) {
+            return CompletableFuture.completedFuture(Result.error(429, "登录尝试过于频繁，请稍后再试"));
+        }
 
         if ("user".equals(type)) {
-            User user = userService.findByUsername(username);
-            if (user != null && passwordEncoder.matches(password, user.getPassword())) {
-                if (user.getStatus() != 1) {
-                    return Result.error("账户已被禁用");
-                }
-
-                String token = jwtUtils.generateToken(username, "USER");
-                Map<String, Object> data = new HashMap<>();
-                data.put("token", token);
-                data.put("user", user);
-                data.put("role", "USER");
-                return Result.success(data);
+            User user = userService.findForLogin(username);
+            if (user != null) {
+                String hash = user.getPassword();
+                return passwordHashingService.matches(password, hash).thenApply(matched -> {
+                    if (!matched) {
+                        loginAttemptLimiter.recordFailure(ip);
+                        return Result.<Map<String, Object>>error("用户名或密码错误");
+                    }
+                    loginAttemptLimiter.reset(username);
+                    passwordHashingService.rehashIfNeeded(password, hash,
+                            newHash -> userService.updatePasswordHash(user.getId(), hash, newHash));
+                    if (user.getStatus() != 1) {
+                        return Result.<Map<String, Object>>error("账户已被禁用");
+                    }
+
+                    Map<String, Object> data = tokens(user.getId(), username, "USER");
+                    data.put("user", profile(user.getId(), username, user.getRealName(), user.getAvatar(), "USER"));
+                    data.put("role", "USER");
+                    return Result.success(data);
+                }).exceptionally(PasswordHashingService::busyResult);
             }
         } else if ("admin".equals(type)) {
-            Admin admin = adminService.findByUsername(username);
-            if (admin != null && passwordEncoder.matches(password, admin.getPassword())) {
-                if (admin.getStatus() != 1) {
-                    return Result.error("账户已被禁用");
-                }
-
-                String token = jwtUtils.generateToken(username, admin.getRole());
-                Map<String, Object> data = new HashMap<>();
-                data.put("token", token);
-                data.put("admin", admin);
-                data.put("role", admin.getRole());
-
-                // 更新最后登录时间
-                adminService.updateLastLoginTime(admin.getId());
-
-                return Result.success(data);
+            Admin admin = adminService.findForLogin(username);
+            if (admin != null) {
+                String hash = admin.getPassword();
+                return passwordHashingService.matches(password, hash).thenApply(matched -> {
+                    if (!matched) {
+                        loginAttemptLimiter.recordFailure(ip);
+                        return Result.<Map<String, Object>>error("用户名或密码错误");
+                    }
+                    loginAttemptLimiter.reset(username);
+                    passwordHashingService.rehashIfNeeded(password, hash,
+                            newHash -> adminService.updatePasswordHash(admin.getId(), hash, newHash));
+                    if (admin.getStatus() != 1) {
+                        return Result.<Map<String, Object>>error("账户已被禁用");
+                    }
+
+                    Map<String, Object> data = tokens(admin.getId(), username, admin.getRole());
+                    data.put("admin", profile(admin.getId(), username, admin.getRealName(), null, admin.getRole()));
+                    data.put("role", admin.getRole());
+
+                    // 最后登录时间由后台定时合并写入
+                    lastLoginTimeFlusher.record(admin.getId());
+
+                    return Result.success(data);
+                }).exceptionally(PasswordHashingService::busyResult);
             }
         }
 
-        return Result.error("用户名或密码错误");
+        loginAttemptLimiter.recordFailure(ip);
+        return CompletableFuture.completedFuture(Result.error("用户名或密码错误"));
+    }
+
+    // 用刷新token换取新的访问token和刷新token，旧刷新token随即吊销，不能重复使用。
+    // 禁用或删除账户时会按账户吊销，这里不再查询账户状态
+    @PostMapping("/refresh")
+    public Result<Map<String, Object>> refresh(@RequestBody RefreshRequest refreshRequest) {
+        String refreshToken = refreshRequest.getRefreshToken();
+        Claims claims = refreshToken != null ? jwtUtils.getClaimsFromToken(refreshToken) : null;
+        if (claims == null || !jwtUtils.isRefreshToken(claims) || tokenRevocationList.isRevoked(claims)
+                || !tokenRevocationList.revoke(claims)) {
+            return Result.error(401, "登录已失效，请重新登录");
+        }
+        return Result.success(tokens(jwtUtils.getUserIdFromClaims(claims), claims.getSubject(),
+                claims.get("role", String.class)));
+    }
+
+    // 吊销当前访问token，请求体中带刷新token时一并吊销
+    @PostMapping("/logout")
+    public Result<String> logout(@RequestBody(required = false) RefreshRequest refreshRequest,
+                                 HttpServletRequest request) {
+        boolean revoked = true;
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            revoked = revokeIfValid(header.substring(7));
+        }
+        if (refreshRequest != null && refreshRequest.getRefreshToken() != null) {
+            revoked &= revokeIfValid(refreshRequest.getRefreshToken());
+        }
+        return revoked ? Result.success("已退出登录") : Result.error("退出登录失败，请重新登录后再试");
+    }
+
+    // 已失效或已吊销的token视为成功，无法吊销时返回 false
+    private boolean revokeIfValid(String token) {
+        Claims claims = jwtUtils.getClaimsFromToken(token);
+        return claims == null || tokenRevocationList.revoke(claims) || tokenRevocationList.isRevoked(claims);
+    }
+
+    private Map<String, Object> tokens(Long id, String username, String role) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("token", jwtUtils.generateToken(id, username, role));
+        data.put("refreshToken", jwtUtils.generateRefreshToken(id, username, role));
+        return data;
+    }
+
+    private static LoginProfile profile(Long id, String username, String realName, String avatar, String role) {
+        LoginProfile profile = new LoginProfile();
+        profile.setId(id);
+        profile.setUsername(username);
+        profile.setRealName(realName);
+        profile.setAvatar(avatar);
+        profile.setRole(role);
+        return profile;
     }
 
     @PostMapping("/register")
-    public Result<String> register(@RequestBody User user) {
-        boolean success = userService.register(user);
-        return success ? Result.success("注册成功") : Result.error("注册失败，用户名已存在");
+    public CompletableFuture<Result<String>> register(@RequestBody User user) {
+        return userService.register(user)
+                .thenApply(success -> success ? Result.success("注册成功") : Result.<String>error("注册失败，用户名已存在"))
+                .exceptionally(PasswordHashingService::busyResult);
     }
 }
\ No newline at end of file
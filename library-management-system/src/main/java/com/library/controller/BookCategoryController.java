@@ -1,6 +1,5 @@
 package com.library.controller;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.library.common.Result;
 import com.library.entity.BookCategory;
 import com.library.service.BookCategoryService;
@@ -27,15 +26,13 @@ public class BookCategoryController {
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<List<BookCategory>> getAllCategories() {
-        QueryWrapper<BookCategory> wrapper = new QueryWrapper<>();
-        wrapper.orderByAsc("sort_order");
-        List<BookCategory> categories = bookCategoryService.list(wrapper);
+        List<BookCategory> categories = bookCategoryService.getAllCategories();
         return Result.success(categories);
     }
 
     @GetMapping("/{id}")
     public Result<BookCategory> getCategoryDetail(@PathVariable Long id) {
-        BookCategory category = bookCategoryService.getById(id);
+        BookCategory category = bookCategoryService.getCategory(id);
         return category != null ? Result.success(category) : Result.error("分类不存在");
     }
 
@@ -48,7 +45,7 @@ public class BookCategoryController {
         }
 
         category.setStatus(1);
-        return bookCategoryService.save(category) ? Result.success("添加成功") : Result.error("添加失败");
+        return bookCategoryService.addCategory(category) ? Result.success("添加成功") : Result.error("添加失败");
     }
 
     @PutMapping("/{id}")
@@ -67,12 +64,12 @@ public class BookCategoryController {
         }
 
         category.setId(id);
-        return bookCategoryService.updateById(category) ? Result.success("更新成功") : Result.error("更新失败");
+        return bookCategoryService.updateCategory(category) ? Result.success("更新成功") : Result.error("更新失败");
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<String> deleteCategory(@PathVariable Long id) {
-        return bookCategoryService.removeById(id) ? Result.success("删除成功") : Result.error("删除失败");
+        return bookCategoryService.deleteCategory(id) ? Result.success("删除成功") : Result.error("删除失败");
     }
 }
\ No newline at end of file
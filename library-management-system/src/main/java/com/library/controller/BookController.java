@@ -1,14 +1,26 @@
 package com.library.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.library.cache.BookSuggestTrie;
+import com.library.common.PageCursor;
+import com.library.common.PageLimits;
 import com.library.common.Result;
+import com.library.dto.BookImportReport;
+import com.library.dto.BookListItem;
 import com.library.entity.Book;
+import com.library.service.BookImportService;
 import com.library.service.BookService;
+import com.library.service.ExportService;
+import com.library.utils.ExportUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 
 @RestController
@@ -18,26 +30,60 @@ public class BookController {
     @Resource
     private BookService bookService;
 
+    @Resource
+    private BookImportService bookImportService;
+
+    @Resource
+    private ExportService exportService;
+
     @GetMapping("/list")
-    public Result<Page<Book>> getBookList(@RequestParam(defaultValue = "1") Integer current,
-                                         @RequestParam(defaultValue = "10") Integer size,
-                                         @RequestParam(required = false) String title,
-                                         @RequestParam(required = false) String author,
-                                         @RequestParam(required = false) Long categoryId) {
-        Page<Book> page = new Page<>(current, size);
-        Page<Book> bookPage = bookService.getBookPage(page, title, author, categoryId);
+    public Result<?> getBookList(@RequestParam(defaultValue = "1") Integer current,
+                                 @RequestParam(defaultValue = "10") Integer size,
+                                 @RequestParam(required = false) String cursor,
+                                 @RequestParam(defaultValue = "false") Boolean withTotal,
+                                 @RequestParam(required = false) String title,
+                                 @RequestParam(required = false) String author,
+                                 @RequestParam(required = false) Long categoryId) {
+        if (!PageLimits.isValidSize(size)) {
+            return Result.error(400, PageLimits.INVALID_SIZE_MESSAGE);
+        }
+        // 传入 cursor 参数时使用游标分页，第一页传空字符串
+        if (cursor != null) {
+            if (!PageCursor.isValid(cursor)) {
+                return Result.error(400, "无效的分页游标");
+            }
+            return Result.success(bookService.getBookCursorPage(cursor, size, withTotal, title, author, categoryId));
+        }
+
+        Page<BookListItem> page = new Page<>(current, size);
+        Page<BookListItem> bookPage = bookService.getBookPage(page, title, author, categoryId);
         return Result.success(bookPage);
     }
 
     @GetMapping("/search")
-    public Result<List<Book>> searchBooks(@RequestParam String keyword) {
-        List<Book> books = bookService.searchBooks(keyword);
-        return Result.success(books);
+    public Result<Page<BookListItem>> searchBooks(@RequestParam(defaultValue = "1") Integer current,
+                                         @RequestParam(defaultValue = "10") Integer size,
+                                         @RequestParam String keyword) {
+        if (!PageLimits.isValidSize(size)) {
+            return Result.error(400, PageLimits.INVALID_SIZE_MESSAGE);
+        }
+        Page<BookListItem> page = new Page<>(current, size);
+        Page<BookListItem> bookPage = bookService.searchBooks(page, keyword);
+        return Result.success(bookPage);
+    }
+
+    @GetMapping("/suggest")
+    public Result<List<BookSuggestTrie.Suggestion>> suggestBooks(@RequestParam String prefix,
+                                                                @RequestParam(defaultValue = "10") Integer limit) {
+        // 每个节点只缓存 TOP_K 个候选
+        int clamped = Math.max(1, Math.min(limit, BookSuggestTrie.TOP_K));
+        return Result.success(bookService.suggestBooks(prefix, clamped));
     }
 
     @GetMapping("/popular")
-    public Result<List<Book>> getPopularBooks(@RequestParam(defaultValue = "10") Integer limit) {
-        List<Book> books = bookService.getPopularBooks(limit);
+    public Result<List<Book>> getPopularBooks(@RequestParam(defaultValue = "10") Integer limit,
+                                             @RequestParam(defaultValue = "30") Integer days) {
+        List<Book> books = bookService.getPopularBooks(days, limit);
         return Result.success(books);
     }
 
@@ -53,16 +99,44 @@ public class BookController {
         return bookService.addBook(book) ? Result.success("添加成功") : Result.error("添加失败");
     }
 
+    // 请求体为 CSV（首行为列名）或 JSON Lines，边读边写入，不受 multipart 大小限制
+    @PostMapping("/import")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<BookImportReport> importBooks(@RequestParam(defaultValue = "csv") String format,
+                                                HttpServletRequest request) throws IOException {
+        if (!"csv".equalsIgnoreCase(format) && !"jsonl".equalsIgnoreCase(format)) {
+            return Result.error(400, "仅支持 csv 或 jsonl 格式");
+        }
+        return Result.success(bookImportService.importBooks(request.getInputStream(), format));
+    }
+
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportBooks(@RequestParam(defaultValue = "csv") String format,
+                            @RequestParam(defaultValue = "false") Boolean gzip,
+                            @RequestParam(required = false) String title,
+                            @RequestParam(required = false) String author,
+                            @RequestParam(required = false) Long categoryId,
+                            HttpServletResponse response) throws IOException {
+        if (!ExportUtils.isSupportedFormat(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "仅支持 csv 或 jsonl 格式");
+            return;
+        }
+        try (OutputStream out = ExportUtils.prepare(response, "books", format, gzip)) {
+            exportService.exportBooks(out, format, title, author, categoryId);
+        }
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<String> updateBook(@PathVariable Long id, @RequestBody Book book) {
         book.setId(id);
-        return bookService.updateById(book) ? Result.success("更新成功") : Result.error("更新失败");
+        return bookService.updateBook(book) ? Result.success("更新成功") : Result.error("更新失败");
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<String> deleteBook(@PathVariable Long id) {
-        return bookService.removeById(id) ? Result.success("删除成功") : Result.error("删除失败");
+        return bookService.deleteBook(id) ? Result.success("删除成功") : Result.error("删除失败");
     }
 }
\ No newline at end of file
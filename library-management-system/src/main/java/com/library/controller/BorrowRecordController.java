@@ -1,53 +1,99 @@
 package com.library.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.library.common.BorrowOutcome;
+import com.library.common.PageCursor;
+import com.library.common.PageLimits;
 import com.library.common.Result;
+import com.library.dto.BatchItemResult;
 import com.library.entity.BorrowRecord;
-import com.library.entity.User;
 import com.library.service.BorrowRecordService;
-import com.library.service.UserService;
-import com.library.utils.JwtUtils;
+import com.library.service.ExportService;
+import com.library.utils.ExportUtils;
+import com.library.security.LoginUser;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
-import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
 
 @RestController
 @RequestMapping("/api/borrow-records")
 public class BorrowRecordController {
 
-    @Resource
-    private BorrowRecordService borrowRecordService;
+    // 单次批量借还的最大条目数
+    private static final int MAX_BATCH_SIZE = 50;
 
     @Resource
-    private UserService userService;
+    private BorrowRecordService borrowRecordService;
 
     @Resource
-    private JwtUtils jwtUtils;
+    private ExportService exportService;
 
     @GetMapping("/list")
     @PreAuthorize("hasRole('ADMIN')")
-    public Result<Page<BorrowRecord>> getBorrowList(@RequestParam(defaultValue = "1") Integer current,
-                                                  @RequestParam(defaultValue = "10") Integer size,
-                                                  @RequestParam(required = false) Long userId,
-                                                  @RequestParam(required = false) Integer status) {
+    public Result<?> getBorrowList(@RequestParam(defaultValue = "1") Integer current,
+                                   @RequestParam(defaultValue = "10") Integer size,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(defaultValue = "false") Boolean withTotal,
+                                   @RequestParam(required = false) Long userId,
+                                   @RequestParam(required = false) Integer status) {
+        if (!PageLimits.isValidSize(size)) {
+            return Result.error(400, PageLimits.INVALID_SIZE_MESSAGE);
+        }
+        // 传入 cursor 参数时使用游标分页，第一页传空字符串
+        if (cursor != null) {
+            if (!PageCursor.isValid(cursor)) {
+                return Result.error(400, "无效的分页游标");
+            }
+            return Result.success(borrowRecordService.getBorrowRecordCursorPage(cursor, size, withTotal, userId, status));
+        }
+
         Page<BorrowRecord> page = new Page<>(current, size);
         Page<BorrowRecord> recordPage = borrowRecordService.getBorrowRecordsWithDetails(page, userId, status);
         return Result.success(recordPage);
     }
 
+    // 流式导出借阅记录，from/to 为借阅日期区间（含两端）
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportBorrowRecords(@RequestParam(defaultValue = "csv") String format,
+                                    @RequestParam(defaultValue = "false") Boolean gzip,
+                                    @RequestParam(required = false) Long userId,
+                                    @RequestParam(required = false) Integer status,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                    HttpServletResponse response) throws IOException {
+        if (!ExportUtils.isSupportedFormat(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "仅支持 csv 或 jsonl 格式");
+            return;
+        }
+        try (OutputStream out = ExportUtils.prepare(response, "borrow-records", format, gzip)) {
+            exportService.exportBorrowRecords(out, format, userId, status, from, to);
+        }
+    }
+
     @GetMapping("/my-records")
     public Result<Page<BorrowRecord>> getMyBorrowRecords(@RequestParam(defaultValue = "1") Integer current,
                                                         @RequestParam(defaultValue = "10") Integer size,
                                                         @RequestParam(required = false) Integer status,
-                                                        HttpServletRequest request) {
-        Long userId = getCurrentUserId(request);
+                                                        @AuthenticationPrincipal LoginUser loginUser) {
+        Long userId = getCurrentUserId(loginUser);
         if (userId == null) {
             return Result.error(401, "未授权访问");
         }
+        if (!PageLimits.isValidSize(size)) {
+            return Result.error(400, PageLimits.INVALID_SIZE_MESSAGE);
+        }
 
         Page<BorrowRecord> page = new Page<>(current, size);
         Page<BorrowRecord> recordPage = borrowRecordService.getBorrowRecordsWithDetails(page, userId, status);
@@ -55,19 +101,20 @@ public class BorrowRecordController {
     }
 
     @PostMapping("/borrow/{bookId}")
-    public Result<String> borrowBook(@PathVariable Long bookId, HttpServletRequest request) {
-        Long userId = getCurrentUserId(request);
+    public Result<String> borrowBook(@PathVariable Long bookId, @AuthenticationPrincipal LoginUser loginUser) {
+        Long userId = getCurrentUserId(loginUser);
         if (userId == null) {
             return Result.error(401, "未授权访问");
         }
 
-        return borrowRecordService.borrowBook(userId, bookId) ?
-               Result.success("借阅成功") : Result.error("借阅失败，请检查图书是否可借或您是否已借阅该书");
+        BorrowOutcome outcome = borrowRecordService.borrowBook(userId, bookId);
+        return outcome == BorrowOutcome.SUCCESS ?
+               Result.success(outcome.getMessage()) : Result.error(outcome.getMessage());
     }
 
     @PostMapping("/return/{recordId}")
-    public Result<String> returnBook(@PathVariable Long recordId, HttpServletRequest request) {
-        Long userId = getCurrentUserId(request);
+    public Result<String> returnBook(@PathVariable Long recordId, @AuthenticationPrincipal LoginUser loginUser) {
+        Long userId = getCurrentUserId(loginUser);
         if (userId == null) {
             return Result.error(401, "未授权访问");
         }
@@ -76,9 +123,29 @@ public class BorrowRecordController {
                Result.success("归还成功") : Result.error("归还失败，请检查借阅记录是否存在");
     }
 
+    @PostMapping("/borrow-batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<List<BatchItemResult>> borrowBooks(@RequestBody BatchBorrowRequest request,
+                                                     @AuthenticationPrincipal LoginUser loginUser) {
+        if (request.getUserId() == null || !isValidBatch(request.getBookIds())) {
+            return Result.error(400, "请提供借阅用户和1-" + MAX_BATCH_SIZE + "本图书");
+        }
+        return Result.success(borrowRecordService.borrowBooks(request.getUserId(), request.getBookIds(),
+                loginUser.getUserId()));
+    }
+
+    @PostMapping("/return-batch")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Result<List<BatchItemResult>> returnBooks(@RequestBody BatchReturnRequest request) {
+        if (!isValidBatch(request.getRecordIds())) {
+            return Result.error(400, "请提供1-" + MAX_BATCH_SIZE + "条借阅记录");
+        }
+        return Result.success(borrowRecordService.returnBooks(request.getRecordIds()));
+    }
+
     @PostMapping("/renew/{recordId}")
-    public Result<String> renewBook(@PathVariable Long recordId, HttpServletRequest request) {
-        Long userId = getCurrentUserId(request);
+    public Result<String> renewBook(@PathVariable Long recordId, @AuthenticationPrincipal LoginUser loginUser) {
+        Long userId = getCurrentUserId(loginUser);
         if (userId == null) {
             return Result.error(401, "未授权访问");
         }
@@ -96,8 +163,9 @@ public class BorrowRecordController {
     @PostMapping("/update-overdue")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<String> updateOverdueRecords() {
-        return borrowRecordService.updateOverdueRecords() ?
-               Result.success("逾期记录更新成功") : Result.error("逾期记录更新失败");
+        int updated = borrowRecordService.updateOverdueRecords();
+        return updated >= 0 ?
+               Result.success("逾期记录更新成功，共" + updated + "条") : Result.error("逾期记录更新失败");
     }
 
     @Data
@@ -106,16 +174,22 @@ public class BorrowRecordController {
         private Integer days; // 借阅天数
     }
 
-    private Long getCurrentUserId(HttpServletRequest request) {
-        String token = request.getHeader("Authorization");
-        if (token != null && token.startsWith("Bearer ")) {
-            token = token.substring(7);
-            String username = jwtUtils.getUsernameFromToken(token);
-            if (username != null) {
-                User user = userService.findByUsername(username);
-                return user != null ? user.getId() : null;
-            }
-        }
-        return null;
+    @Data
+    public static class BatchBorrowRequest {
+        private Long userId;
+        private List<Long> bookIds;
+    }
+
+    @Data
+    public static class BatchReturnRequest {
+        private List<Long> recordIds;
+    }
+
+    private boolean isValidBatch(List<Long> ids) {
+        return ids != null && !ids.isEmpty() && ids.size() <= MAX_BATCH_SIZE && ids.stream().allMatch(Objects::nonNull);
+    }
+
+    private Long getCurrentUserId(LoginUser loginUser) {
+        return loginUser != null ? loginUser.getReaderId() : null;
     }
 }
\ No newline at end of file
@@ -1,14 +1,26 @@
 package com.library.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.library.common.PageCursor;
+import com.library.common.PageLimits;
 import com.library.common.Result;
+import com.library.dto.UserListItem;
 import com.library.entity.User;
+import com.library.security.LoginUser;
+import com.library.security.PasswordHashingService;
+import com.library.security.TokenRevocationList;
+import com.library.service.ExportService;
 import com.library.service.UserService;
+import com.library.utils.ExportUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/users")
@@ -17,18 +29,52 @@ public class UserController {
     @Resource
     private UserService userService;
 
+    @Resource
+    private ExportService exportService;
+
+    @Resource
+    private TokenRevocationList tokenRevocationList;
+
     @GetMapping("/list")
     @PreAuthorize("hasRole('ADMIN')")
-    public Result<Page<User>> getUserList(@RequestParam(defaultValue = "1") Integer current,
-                                         @RequestParam(defaultValue = "10") Integer size,
-                                         @RequestParam(required = false) String keyword) {
-        Page<User> page = new Page<>(current, size);
-        Page<User> userPage = userService.getUserList(page, keyword);
+    public Result<?> getUserList(@RequestParam(defaultValue = "1") Integer current,
+                                 @RequestParam(defaultValue = "10") Integer size,
+                                 @RequestParam(required = false) String cursor,
+                                 @RequestParam(defaultValue = "false") Boolean withTotal,
+                                 @RequestParam(required = false) String keyword) {
+        if (!PageLimits.isValidSize(size)) {
+            return Result.error(400, PageLimits.INVALID_SIZE_MESSAGE);
+        }
+        // 传入 cursor 参数时使用游标分页，第一页传空字符串
+        if (cursor != null) {
+            if (!PageCursor.isValid(cursor)) {
+                return Result.error(400, "无效的分页游标");
+            }
+            return Result.success(userService.getUserCursorPage(cursor, size, withTotal, keyword));
+        }
+
+        Page<UserListItem> page = new Page<>(current, size);
+        Page<UserListItem> userPage = userService.getUserList(page, keyword);
         return Result.success(userPage);
     }
 
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportUsers(@RequestParam(defaultValue = "csv") String format,
+                            @RequestParam(defaultValue = "false") Boolean gzip,
+                            @RequestParam(required = false) String keyword,
+                            HttpServletResponse response) throws IOException {
+        if (!ExportUtils.isSupportedFormat(format)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "仅支持 csv 或 jsonl 格式");
+            return;
+        }
+        try (OutputStream out = ExportUtils.prepare(response, "users", format, gzip)) {
+            exportService.exportUsers(out, format, keyword);
+        }
+    }
+
     @GetMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or #id == authentication.name")
+    @PreAuthorize("hasRole('ADMIN') or principal.readerId == #id")
     public Result<User> getUserDetail(@PathVariable Long id) {
         User user = userService.getById(id);
         if (user != null) {
@@ -38,7 +84,7 @@ public class UserController {
     }
 
     @PutMapping("/{id}")
-    @PreAuthorize("hasRole('ADMIN') or @userService.getById(#id).username == authentication.name")
+    @PreAuthorize("hasRole('ADMIN') or principal.readerId == #id")
     public Result<String> updateUser(@PathVariable Long id, @RequestBody User user) {
         User existingUser = userService.getById(id);
         if (existingUser == null) {
@@ -59,15 +105,22 @@ public class UserController {
     }
 
     @PutMapping("/{id}/password")
-    @PreAuthorize("hasRole('ADMIN') or @userService.getById(#id).username == authentication.name")
-    public Result<String> updatePassword(@PathVariable Long id, @RequestParam String oldPassword, @RequestParam String newPassword) {
-        return userService.updatePassword(id, oldPassword, newPassword) ?
-               Result.success("密码修改成功") : Result.error("密码修改失败，请检查原密码是否正确");
+    @PreAuthorize("hasRole('ADMIN') or principal.readerId == #id")
+    public CompletableFuture<Result<String>> updatePassword(@PathVariable Long id, @RequestParam String oldPassword,
+                                                            @RequestParam String newPassword) {
+        return userService.updatePassword(id, oldPassword, newPassword)
+                .thenApply(success -> success ?
+                        Result.success("密码修改成功") : Result.<String>error("密码修改失败，请检查原密码是否正确"))
+                .exceptionally(PasswordHashingService::busyResult);
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public Result<String> deleteUser(@PathVariable Long id) {
-        return userService.removeById(id) ? Result.success("删除成功") : Result.error("删除失败");
+        if (!userService.removeById(id)) {
+            return Result.error("删除失败");
+        }
+        tokenRevocationList.revokeAll(LoginUser.ROLE_USER, id);
+        return Result.success("删除成功");
     }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// 批量借还中单个条目的处理结果
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchItemResult {
+
+    private Long id; // 请求中的图书ID或借阅记录ID
+    private Boolean success;
+    private Long recordId; // 借阅成功时生成的借阅记录ID
+    private String message;
+
+    public static BatchItemResult success(Long id, Long recordId, String message) {
+        return new BatchItemResult(id, true, recordId, message);
+    }
+
+    public static BatchItemResult failure(Long id, String message) {
+        return new BatchItemResult(id, false, null, message);
+    }
+}
@@ -0,0 +1,37 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 图书批量导入结果
+@Data
+public class BookImportReport {
+
+    // 最多返回的错误条数，避免大文件导入时错误列表占满内存
+    public static final int MAX_ERRORS = 1000;
+
+    private long totalRows;
+    private long importedRows;
+    private long failedRows;
+    private long createdCopies;
+    private long elapsedMs;
+    private long rowsPerSecond;
+    private List<RowError> errors = new ArrayList<>();
+
+    public void addError(long line, String message) {
+        failedRows++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
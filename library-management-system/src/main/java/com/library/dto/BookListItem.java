@@ -0,0 +1,25 @@
+package com.library.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// 图书列表和搜索结果的一行，只包含列表展示的字段，详情接口仍返回完整的 Book
+@Data
+public class BookListItem {
+
+    private Long id;
+    private String isbn;
+    private String title;
+    private String author;
+    private String publisher;
+    private LocalDate publishDate;
+    private Long categoryId;
+    private String categoryName;
+    private String coverImage;
+    private Integer totalCopies;
+    private Integer availableCopies;
+    private Integer status;
+    private LocalDateTime createTime;
+}
@@ -0,0 +1,14 @@
+package com.library.dto;
+
+import lombok.Data;
+
+// 登录响应中的账户信息，只含前端展示需要的字段
+@Data
+public class LoginProfile {
+
+    private Long id;
+    private String username;
+    private String realName;
+    private String avatar;
+    private String role;
+}
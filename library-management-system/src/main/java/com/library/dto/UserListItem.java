@@ -0,0 +1,23 @@
+package com.library.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 用户列表的一行，不含密码
+@Data
+public class UserListItem {
+
+    private Long id;
+    private String username;
+    private String email;
+    private String phone;
+    private String realName;
+    private String studentId;
+    private String department;
+    private String major;
+    private String grade;
+    private Integer status;
+    private String avatar;
+    private LocalDateTime createTime;
+}
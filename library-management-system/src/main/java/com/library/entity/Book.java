@@ -1,5 +1,6 @@
 package com.library.entity;
 
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.library.common.BaseEntity;
 import lombok.Data;
@@ -27,4 +28,7 @@ public class Book extends BaseEntity {
     private Integer totalCopies;
     private Integer availableCopies;
     private Integer status;
+
+    @TableField(exist = false)
+    private BookCategory category;
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.library.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("book_popularity")
+public class BookPopularity {
+
+    @TableId(type = IdType.INPUT)
+    private Long bookId;
+    private Integer borrowCount7d;
+    private Integer borrowCount30d;
+    private LocalDateTime updateTime;
+}
@@ -1,5 +1,6 @@
 package com.library.entity;
 
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableName;
 import com.library.common.BaseEntity;
 import lombok.Data;
@@ -24,4 +25,10 @@ public class BorrowRecord extends BaseEntity {
     private Integer status;
     private BigDecimal fineAmount;
     private String remark;
+
+    @TableField(exist = false)
+    private User user;
+
+    @TableField(exist = false)
+    private Book book;
 }
\ No newline at end of file
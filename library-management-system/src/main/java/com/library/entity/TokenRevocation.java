@@ -0,0 +1,20 @@
+package com.library.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("token_revocations")
+public class TokenRevocation {
+
+    @TableId(type = IdType.AUTO)
+    private Long id;
+    private String tokenId;
+    private String principal;
+    private LocalDateTime revokedAt;
+    private LocalDateTime expiresAt;
+}
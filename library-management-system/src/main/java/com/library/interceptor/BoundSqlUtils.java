@@ -0,0 +1,52 @@
+package com.library.interceptor;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// 按 SQL 中占位符的顺序取出绑定参数的值
+public final class BoundSqlUtils {
+
+    private BoundSqlUtils() {
+    }
+
+    public static List<Object> parameterValues(MappedStatement ms, BoundSql boundSql) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<Object> values = new ArrayList<>(mappings.size());
+        Object parameterObject = boundSql.getParameterObject();
+        MetaObject metaObject = parameterObject == null ? null : ms.getConfiguration().newMetaObject(parameterObject);
+        for (ParameterMapping mapping : mappings) {
+            String property = mapping.getProperty();
+            if (boundSql.hasAdditionalParameter(property)) {
+                values.add(boundSql.getAdditionalParameter(property));
+            } else if (parameterObject == null) {
+                values.add(null);
+            } else if (ms.getConfiguration().getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                values.add(parameterObject);
+            } else {
+                values.add(metaObject.getValue(property));
+            }
+        }
+        return values;
+    }
+
+    // 用于日志的参数描述，密码类参数打码，过长的值截断
+    public static String describe(MappedStatement ms, BoundSql boundSql) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<Object> values = parameterValues(ms, boundSql);
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                text.append(", ");
+            }
+            String property = mappings.get(i).getProperty();
+            String value = property.toLowerCase().contains("password") ? "******" : String.valueOf(values.get(i));
+            text.append(property).append('=').append(value.length() > 100 ? value.substring(0, 100) + "..." : value);
+        }
+        return text.append(']').toString();
+    }
+}
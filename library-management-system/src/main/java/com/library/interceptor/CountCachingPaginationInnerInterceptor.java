@@ -0,0 +1,147 @@
+package com.library.interceptor;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.ParameterUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 缓存分页查询的总数，按 SQL 和绑定参数区分；涉及的表发生写操作或超过有效期后重新统计
+public class CountCachingPaginationInnerInterceptor extends PaginationInnerInterceptor {
+
+    private static final Pattern READ_TABLES = Pattern.compile("(?i)\\b(?:from|join)\\s+`?(\\w+)`?");
+    private static final Pattern WRITE_TABLE = Pattern.compile(
+            "(?i)^\\s*(?:update|insert\\s+(?:ignore\\s+)?into|replace\\s+into|delete\\s+from)\\s+`?(\\w+)`?");
+
+    private final Cache<String, CachedCount> counts;
+
+    // 表名 -> 写入版本号，写操作后递增使相关缓存失效
+    private final ConcurrentMap<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public CountCachingPaginationInnerInterceptor(DbType dbType, long ttlMillis, long maximumSize) {
+        super(dbType);
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    @Override
+    public boolean willDoQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                               ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        IPage<?> page = ParameterUtils.findPage(parameter).orElse(null);
+        if (page == null || page.getSize() < 0 || !page.searchCount()) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+
+        String key = cacheKey(ms, boundSql);
+        CachedCount cached = counts.getIfPresent(key);
+        if (cached != null && cached.isCurrent(this)) {
+            hits.incrementAndGet();
+            page.setTotal(cached.total);
+            return continuePage(page);
+        }
+
+        misses.incrementAndGet();
+        // 先记录版本号再统计，统计期间发生的写操作会使这次结果失效
+        Map<String, Long> versions = currentVersions(readTables(boundSql.getSql()));
+        boolean result = super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        counts.put(key, new CachedCount(page.getTotal(), versions));
+        return result;
+    }
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) throws SQLException {
+        Matcher matcher = WRITE_TABLE.matcher(ms.getBoundSql(parameter).getSql());
+        if (matcher.find()) {
+            invalidateTable(matcher.group(1));
+        }
+        super.beforeUpdate(executor, ms, parameter);
+    }
+
+    // 绕过 MyBatis 的写操作（如 JDBC 批量导入）需手动调用
+    public void invalidateTable(String table) {
+        tableVersions.computeIfAbsent(table.toLowerCase(), t -> new AtomicLong()).incrementAndGet();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getSize() {
+        return counts.estimatedSize();
+    }
+
+    private long version(String table) {
+        AtomicLong version = tableVersions.get(table);
+        return version != null ? version.get() : 0;
+    }
+
+    private Map<String, Long> currentVersions(Set<String> tables) {
+        Map<String, Long> versions = new HashMap<>(tables.size());
+        for (String table : tables) {
+            versions.put(table, version(table));
+        }
+        return versions;
+    }
+
+    private static Set<String> readTables(String sql) {
+        Set<String> tables = new HashSet<>();
+        Matcher matcher = READ_TABLES.matcher(sql);
+        while (matcher.find()) {
+            tables.add(matcher.group(1).toLowerCase());
+        }
+        return tables;
+    }
+
+    // 语句ID + 规范化后的 SQL + 绑定参数值（不含分页参数）
+    private static String cacheKey(MappedStatement ms, BoundSql boundSql) {
+        StringBuilder key = new StringBuilder(ms.getId()).append('|')
+                .append(boundSql.getSql().replaceAll("\\s+", " ").trim());
+        for (Object value : BoundSqlUtils.parameterValues(ms, boundSql)) {
+            key.append('|').append(value);
+        }
+        return key.toString();
+    }
+
+    private static final class CachedCount {
+        private final long total;
+        private final Map<String, Long> versions;
+
+        private CachedCount(long total, Map<String, Long> versions) {
+            this.total = total;
+            this.versions = versions;
+        }
+
+        private boolean isCurrent(CountCachingPaginationInnerInterceptor interceptor) {
+            for (Map.Entry<String, Long> entry : versions.entrySet()) {
+                if (interceptor.version(entry.getKey()) != entry.getValue()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.library.interceptor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// 划定请求范围并在请求结束时汇总语句数，超过预算的请求输出告警日志
+@Slf4j
+public class StatementBudgetFilter extends OncePerRequestFilter {
+
+    // 未匹配到处理器的请求（404、静态资源等）统一归入一个接口，原始路径不进入汇总
+    public static final String UNMAPPED = "<unmapped>";
+
+    private final StatementReport statementReport;
+
+    private final int statementBudget;
+
+    public StatementBudgetFilter(StatementReport statementReport, int statementBudget) {
+        this.statementReport = statementReport;
+        this.statementBudget = statementBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        StatementBudgetInterceptor.RequestStatements statements =
+                StatementBudgetInterceptor.begin(request.getMethod() + " " + request.getRequestURI());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            StatementBudgetInterceptor.end();
+            if (statements.getTotal() > 0) {
+                // 按映射路径汇总，/api/books/1 和 /api/books/2 归为同一接口
+                Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                String endpoint = pattern != null ? request.getMethod() + " " + pattern : UNMAPPED;
+                boolean overBudget = statements.getTotal() > statementBudget;
+                statementReport.recordRequest(endpoint, statements.getTotal(), overBudget);
+                if (overBudget) {
+                    log.warn("请求 {} 执行了{}条SQL，超过预算{}条：{}", statements.getRequest(),
+                            statements.getTotal(), statementBudget, statements.getCounts());
+                }
+            }
+        }
+    }
+}
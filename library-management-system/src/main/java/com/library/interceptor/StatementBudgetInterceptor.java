@@ -0,0 +1,104 @@
+package com.library.interceptor;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// 统计每个 HTTP 请求执行的语句数，并记录超过阈值的慢语句及其绑定参数。
+// 请求范围由 StatementBudgetFilter 划定，请求之外（如定时任务）的语句只做慢语句检测。
+@Slf4j
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class StatementBudgetInterceptor implements Interceptor {
+
+    private static final ThreadLocal<RequestStatements> CURRENT = new ThreadLocal<>();
+
+    private final StatementReport statementReport;
+
+    private final long slowThresholdMillis;
+
+    public StatementBudgetInterceptor(StatementReport statementReport, long slowThresholdMillis) {
+        this.statementReport = statementReport;
+        this.slowThresholdMillis = slowThresholdMillis;
+    }
+
+    public static RequestStatements begin(String request) {
+        RequestStatements statements = new RequestStatements(request);
+        CURRENT.set(statements);
+        return statements;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invocation.proceed();
+        } finally {
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            Object[] args = invocation.getArgs();
+            MappedStatement ms = (MappedStatement) args[0];
+            RequestStatements statements = CURRENT.get();
+            if (statements != null) {
+                statements.record(ms.getId());
+            }
+            if (elapsedMillis >= slowThresholdMillis) {
+                // 只有慢语句才解析绑定参数
+                BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(args[1]);
+                String parameters = BoundSqlUtils.describe(ms, boundSql);
+                String request = statements != null ? statements.getRequest() : null;
+                log.warn("慢SQL {} 耗时{}ms，请求 {}，参数 {}", ms.getId(), elapsedMillis, request, parameters);
+                statementReport.recordSlowStatement(ms.getId(), elapsedMillis, parameters, request);
+            }
+        }
+    }
+
+    // 单个请求内的语句计数
+    public static class RequestStatements {
+
+        private final String request;
+        private final Map<String, Integer> counts = new LinkedHashMap<>();
+        private int total;
+
+        private RequestStatements(String request) {
+            this.request = request;
+        }
+
+        private void record(String statementId) {
+            total++;
+            counts.merge(statementId, 1, Integer::sum);
+        }
+
+        public String getRequest() {
+            return request;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public Map<String, Integer> getCounts() {
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.library.interceptor;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// 按接口汇总每个请求的语句数，并保留最近的慢语句，通过 /actuator/statements 查看
+@Component
+@Endpoint(id = "statements")
+public class StatementReport {
+
+    private static final int MAX_SLOW_STATEMENTS = 50;
+
+    private final ConcurrentMap<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+
+    private final Deque<Map<String, Object>> slowStatements = new ArrayDeque<>(MAX_SLOW_STATEMENTS);
+
+    @ReadOperation
+    public Map<String, Object> report() {
+        List<Map<String, Object>> rows = new ArrayList<>(endpoints.size());
+        endpoints.forEach((endpoint, stats) -> rows.add(stats.toMap(endpoint)));
+        rows.sort(Comparator.comparingDouble((Map<String, Object> row) -> (Double) row.get("avgStatements")).reversed());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("endpoints", rows);
+        synchronized (slowStatements) {
+            report.put("slowStatements", new ArrayList<>(slowStatements));
+        }
+        return report;
+    }
+
+    public void recordRequest(String endpoint, int statements, boolean overBudget) {
+        endpoints.computeIfAbsent(endpoint, e -> new EndpointStats()).record(statements, overBudget);
+    }
+
+    public void recordSlowStatement(String statementId, long elapsedMillis, String parameters, String request) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("time", LocalDateTime.now().toString());
+        entry.put("statement", statementId);
+        entry.put("elapsedMs", elapsedMillis);
+        entry.put("parameters", parameters);
+        entry.put("request", request);
+        synchronized (slowStatements) {
+            if (slowStatements.size() == MAX_SLOW_STATEMENTS) {
+                slowStatements.removeFirst();
+            }
+            slowStatements.addLast(entry);
+        }
+    }
+
+    // 某个接口的平均语句数，接口未出现过时返回 0；可在测试中断言语句数没有回退
+    public double getAverageStatements(String endpoint) {
+        EndpointStats stats = endpoints.get(endpoint);
+        return stats != null ? stats.average() : 0;
+    }
+
+    public void reset() {
+        endpoints.clear();
+        synchronized (slowStatements) {
+            slowStatements.clear();
+        }
+    }
+
+    private static class EndpointStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        private final AtomicLong overBudget = new AtomicLong();
+
+        private void record(int count, boolean exceeded) {
+            requests.increment();
+            statements.add(count);
+            max.accumulate(count);
+            if (exceeded) {
+                overBudget.incrementAndGet();
+            }
+        }
+
+        private double average() {
+            long total = requests.sum();
+            return total > 0 ? (double) statements.sum() / total : 0;
+        }
+
+        private Map<String, Object> toMap(String endpoint) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("endpoint", endpoint);
+            row.put("requests", requests.sum());
+            row.put("avgStatements", Math.round(average() * 100) / 100.0);
+            row.put("maxStatements", max.get());
+            row.put("overBudget", overBudget.get());
+            return row;
+        }
+    }
+}
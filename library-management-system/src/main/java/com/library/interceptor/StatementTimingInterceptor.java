@@ -0,0 +1,68 @@
+package com.library.interceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+// 按 Mapper 语句记录执行耗时（含结果映射），指标名 library.mybatis.statement，statement 标签为 "Mapper.方法"
+@Intercepts({
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})
+})
+public class StatementTimingInterceptor implements Interceptor {
+
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public StatementTimingInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            timer(ms, success).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(MappedStatement ms, boolean success) {
+        String key = success ? ms.getId() : ms.getId() + "#error";
+        return timers.computeIfAbsent(key, k -> Timer.builder("library.mybatis.statement")
+                .tag("statement", shortName(ms.getId()))
+                .tag("type", ms.getSqlCommandType().name().toLowerCase())
+                .tag("outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    // com.library.mapper.BookMapper.selectById -> BookMapper.selectById
+    private static String shortName(String id) {
+        int method = id.lastIndexOf('.');
+        int mapper = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return id.substring(mapper + 1);
+    }
+}
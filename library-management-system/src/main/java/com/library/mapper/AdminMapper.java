@@ -3,7 +3,21 @@ package com.library.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.library.entity.Admin;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Map;
 
 @Mapper
 public interface AdminMapper extends BaseMapper<Admin> {
+
+    // loginTimes: 管理员ID -> 最后登录时间，一条语句写入多行
+    @Update("<script>" +
+            "UPDATE admins SET last_login_time = CASE id " +
+            "<foreach collection='loginTimes' index='adminId' item='loginTime'>WHEN #{adminId} THEN #{loginTime} </foreach>" +
+            "END " +
+            "WHERE id IN <foreach collection='loginTimes' index='adminId' open='(' separator=',' close=')'>#{adminId}</foreach>" +
+            "</script>")
+    int updateLastLoginTimes(@Param("loginTimes") Map<Long, LocalDateTime> loginTimes);
 }
\ No newline at end of file
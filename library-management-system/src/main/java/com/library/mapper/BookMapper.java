@@ -2,13 +2,73 @@ package com.library.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.library.common.PageCursor;
+import com.library.dto.BookListItem;
 import com.library.entity.Book;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface BookMapper extends BaseMapper<Book> {
 
-    Page<Book> selectBooksWithCategory(Page<Book> page, @Param("title") String title,
-                                      @Param("author") String author, @Param("categoryId") Long categoryId);
-}
\ No newline at end of file
+    // categoryIds 为分类及其全部子分类
+    Page<BookListItem> selectBookListItems(Page<BookListItem> page, @Param("title") String title,
+                                           @Param("author") String author,
+                                           @Param("categoryIds") Collection<Long> categoryIds);
+
+    List<BookListItem> selectBookListItemsAfter(@Param("title") String title, @Param("author") String author,
+                                                @Param("categoryIds") Collection<Long> categoryIds,
+                                                @Param("cursor") PageCursor cursor, @Param("limit") int limit);
+
+    List<BookListItem> selectBookListItemsByIds(@Param("ids") Collection<Long> ids);
+
+    // 检索索引未就绪时的模糊查询
+    Page<BookListItem> searchBookListItems(Page<BookListItem> page, @Param("keyword") String keyword);
+
+    long countBooks(@Param("title") String title, @Param("author") String author,
+                    @Param("categoryIds") Collection<Long> categoryIds);
+
+    Book selectBookWithCategoryById(@Param("id") Long id);
+
+    Cursor<Map<String, Object>> streamBooks(@Param("title") String title, @Param("author") String author,
+                                            @Param("categoryIds") Collection<Long> categoryIds);
+
+    @Update("UPDATE books SET available_copies = available_copies - 1 " +
+            "WHERE id = #{bookId} AND status = 1 AND available_copies > 0 AND is_deleted = 0")
+    int decreaseAvailableCopies(@Param("bookId") Long bookId);
+
+    @Update("UPDATE books SET available_copies = available_copies + #{change} " +
+            "WHERE id = #{bookId} AND available_copies + #{change} BETWEEN 0 AND total_copies AND is_deleted = 0")
+    int updateAvailableCopies(@Param("bookId") Long bookId, @Param("change") int change);
+
+    @Select("<script>" +
+            "SELECT id, status, available_copies FROM books " +
+            "WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND is_deleted = 0 ORDER BY id FOR UPDATE" +
+            "</script>")
+    List<Book> lockBooks(@Param("ids") Collection<Long> ids);
+
+    @Update("<script>" +
+            "UPDATE books SET available_copies = available_copies - 1 " +
+            "WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND status = 1 AND available_copies &gt; 0 AND is_deleted = 0" +
+            "</script>")
+    int decreaseAvailableCopiesBatch(@Param("ids") Collection<Long> ids);
+
+    // changes: 图书ID -> 增加的可借数量
+    @Update("<script>" +
+            "UPDATE books SET available_copies = LEAST(total_copies, available_copies + CASE id " +
+            "<foreach collection='changes' index='bookId' item='change'>WHEN #{bookId} THEN #{change} </foreach>" +
+            "END) " +
+            "WHERE id IN <foreach collection='changes' index='bookId' open='(' separator=',' close=')'>#{bookId}</foreach> " +
+            "AND is_deleted = 0" +
+            "</script>")
+    int increaseAvailableCopiesBatch(@Param("changes") Map<Long, Integer> changes);
+}
@@ -0,0 +1,22 @@
+package com.library.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.library.entity.BookPopularity;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+@Mapper
+public interface BookPopularityMapper extends BaseMapper<BookPopularity> {
+
+    @Insert("<script>" +
+            "INSERT INTO book_popularity (book_id, borrow_count_7d, borrow_count_30d) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.bookId}, #{item.borrowCount7d}, #{item.borrowCount30d})" +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE borrow_count_7d = VALUES(borrow_count_7d), borrow_count_30d = VALUES(borrow_count_30d)" +
+            "</script>")
+    int upsertBatch(@Param("list") List<BookPopularity> list);
+}
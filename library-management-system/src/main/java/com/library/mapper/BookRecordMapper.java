@@ -4,14 +4,37 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.library.entity.BookRecord;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 import org.apache.ibatis.annotations.Update;
 
+import java.util.Collection;
+import java.util.List;
+
 @Mapper
 public interface BookRecordMapper extends BaseMapper<BookRecord> {
 
-    @Update("UPDATE book_records SET status = #{status} WHERE book_id = #{bookId} AND status = 1 LIMIT 1")
+    // 原子地占用一个可借副本，被占用副本的ID写入当前连接的 LAST_INSERT_ID()
+    @Update("UPDATE book_records SET status = #{status}, id = LAST_INSERT_ID(id) " +
+            "WHERE book_id = #{bookId} AND status = 1 AND is_deleted = 0 LIMIT 1")
     int updateAvailableBookRecordStatus(@Param("bookId") Long bookId, @Param("status") Integer status);
 
-    @Update("UPDATE book_records SET status = 1 WHERE id = #{id}")
+    // 当前连接上一次 updateAvailableBookRecordStatus 占用的副本ID
+    @Select("SELECT LAST_INSERT_ID()")
+    Long selectLastInsertId();
+
+    @Select("SELECT id FROM book_records WHERE book_id = #{bookId} AND status = 1 AND is_deleted = 0")
+    List<Long> selectAvailableIds(@Param("bookId") Long bookId);
+
+    @Update("UPDATE book_records SET status = 0 WHERE id = #{id} AND status = 1 AND is_deleted = 0")
+    int claimBookRecord(@Param("id") Long id);
+
+    @Update("UPDATE book_records SET status = 1 WHERE id = #{id} AND status = 0")
     int returnBookRecord(@Param("id") Long id);
-}
\ No newline at end of file
+
+    @Update("<script>" +
+            "UPDATE book_records SET status = 1 " +
+            "WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND status = 0" +
+            "</script>")
+    int returnBookRecords(@Param("ids") Collection<Long> ids);
+}
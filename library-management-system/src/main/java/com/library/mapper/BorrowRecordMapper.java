@@ -2,9 +2,19 @@ package com.library.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.library.common.PageCursor;
 import com.library.entity.BorrowRecord;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.cursor.Cursor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface BorrowRecordMapper extends BaseMapper<BorrowRecord> {
@@ -12,4 +22,70 @@ public interface BorrowRecordMapper extends BaseMapper<BorrowRecord> {
     Page<BorrowRecord> selectBorrowRecordsWithDetails(Page<BorrowRecord> page,
                                                     @Param("userId") Long userId,
                                                     @Param("status") Integer status);
-}
\ No newline at end of file
+
+    List<BorrowRecord> selectBorrowRecordsWithDetailsAfter(@Param("userId") Long userId,
+                                                           @Param("status") Integer status,
+                                                           @Param("cursor") PageCursor cursor,
+                                                           @Param("limit") int limit);
+
+    long countBorrowRecords(@Param("userId") Long userId, @Param("status") Integer status);
+
+    // 流式读取导出用的借阅明细，按借阅日期区间 [from, to) 过滤
+    Cursor<Map<String, Object>> streamBorrowRecords(@Param("userId") Long userId, @Param("status") Integer status,
+                                                    @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // 为刚占用的副本插入借阅记录，用户状态校验与重复借阅校验合并在同一条语句中
+    int insertForClaimedBookRecord(BorrowRecord borrowRecord);
+
+    // 多行插入，生成的ID回填到各条记录
+    int insertBorrowRecords(List<BorrowRecord> borrowRecords);
+
+    @Select("<script>" +
+            "SELECT book_id FROM borrow_records WHERE user_id = #{userId} " +
+            "AND book_id IN <foreach collection='bookIds' item='bookId' open='(' separator=',' close=')'>#{bookId}</foreach> " +
+            "AND status IN (1, 3) AND is_deleted = 0" +
+            "</script>")
+    List<Long> selectActiveBookIds(@Param("userId") Long userId, @Param("bookIds") Collection<Long> bookIds);
+
+    @Select("<script>" +
+            "SELECT id, user_id, book_id, book_record_id, status FROM borrow_records " +
+            "WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND is_deleted = 0 ORDER BY id FOR UPDATE" +
+            "</script>")
+    List<BorrowRecord> lockBorrowRecords(@Param("ids") Collection<Long> ids);
+
+    // 罚金按归还时间重新计算，巡检在到期后很快标记逾期，那时算出的罚金接近0
+    @Update("<script>" +
+            "UPDATE borrow_records SET status = 2, return_date = #{returnDate}, " +
+            "fine_amount = GREATEST(TIMESTAMPDIFF(DAY, due_date, #{returnDate}), 0) * CAST(#{finePerDay} AS DECIMAL(10,2)) " +
+            "WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND status IN (1, 3)" +
+            "</script>")
+    int markReturnedBatch(@Param("ids") Collection<Long> ids, @Param("returnDate") LocalDateTime returnDate,
+                          @Param("finePerDay") BigDecimal finePerDay);
+
+    @Update("UPDATE borrow_records SET status = 2, return_date = #{returnDate}, " +
+            "fine_amount = GREATEST(TIMESTAMPDIFF(DAY, due_date, #{returnDate}), 0) * CAST(#{finePerDay} AS DECIMAL(10,2)) " +
+            "WHERE id = #{id} AND user_id = #{userId} AND status IN (1, 3)")
+    int markReturned(@Param("id") Long id, @Param("userId") Long userId,
+                     @Param("returnDate") LocalDateTime returnDate, @Param("finePerDay") BigDecimal finePerDay);
+
+    // 按应还日期顺序处理一批逾期记录，已处理的记录不再满足条件，重复执行即可从中断处继续
+    @Update("UPDATE borrow_records SET status = 3, fine_amount = TIMESTAMPDIFF(DAY, due_date, #{now}) * CAST(#{finePerDay} AS DECIMAL(10,2)) " +
+            "WHERE status = 1 AND due_date < #{now} AND is_deleted = 0 ORDER BY due_date LIMIT #{limit}")
+    int markOverdueBatch(@Param("now") LocalDateTime now, @Param("finePerDay") BigDecimal finePerDay,
+                         @Param("limit") int limit);
+
+    // 条件中再次校验状态和应还日期，内存索引与数据库不一致时不会误标
+    @Update("<script>" +
+            "UPDATE borrow_records SET status = 3, fine_amount = TIMESTAMPDIFF(DAY, due_date, #{now}) * CAST(#{finePerDay} AS DECIMAL(10,2)) " +
+            "WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND status = 1 AND due_date &lt; #{now}" +
+            "</script>")
+    int markOverdueByIds(@Param("ids") List<Long> ids, @Param("now") LocalDateTime now,
+                         @Param("finePerDay") BigDecimal finePerDay);
+
+    @Select("SELECT book_id, DATE(borrow_date) AS borrow_day, COUNT(*) AS borrow_count FROM borrow_records " +
+            "WHERE borrow_date >= #{since} AND is_deleted = 0 GROUP BY book_id, DATE(borrow_date)")
+    List<Map<String, Object>> countDailyBorrowsSince(@Param("since") LocalDateTime since);
+}
@@ -0,0 +1,9 @@
+package com.library.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.library.entity.TokenRevocation;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface TokenRevocationMapper extends BaseMapper<TokenRevocation> {
+}
@@ -1,9 +1,47 @@
 package com.library.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.library.dto.UserListItem;
 import com.library.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
+
+import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
-}
\ No newline at end of file
+
+    String LIST_COLUMNS = "id, username, email, phone, real_name, student_id, department, major, grade, status, " +
+            "avatar, create_time";
+
+    @Select("SELECT " + LIST_COLUMNS + " FROM users ${ew.customSqlSegment}")
+    Page<UserListItem> selectUserListItems(Page<UserListItem> page, @Param(Constants.WRAPPER) Wrapper<User> wrapper);
+
+    @Select("SELECT " + LIST_COLUMNS + " FROM users ${ew.customSqlSegment}")
+    List<UserListItem> selectUserListItemList(@Param(Constants.WRAPPER) Wrapper<User> wrapper);
+
+    // 锁定正常状态的用户，与单本借阅的重复借阅校验互斥
+    @Select("SELECT id FROM users WHERE id = #{id} AND status = 1 AND is_deleted = 0 FOR UPDATE")
+    Long lockActiveUser(@Param("id") Long id);
+
+    // 流式读取导出用的用户信息，不含密码
+    @Select("<script>" +
+            "SELECT id, username, email, phone, real_name, student_id, department, major, grade, status, create_time " +
+            "FROM users WHERE is_deleted = 0 " +
+            "<if test='keyword != null and keyword != \"\"'>" +
+            "AND (username LIKE CONCAT('%', #{keyword}, '%') OR real_name LIKE CONCAT('%', #{keyword}, '%') " +
+            "OR student_id LIKE CONCAT('%', #{keyword}, '%')) " +
+            "</if>" +
+            "ORDER BY id" +
+            "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Map<String, Object>> streamUsers(@Param("keyword") String keyword);
+}
@@ -0,0 +1,56 @@
+package com.library.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// 线程安全的布隆过滤器，只增不删；判定不存在时一定不存在，判定存在时需再查精确集合
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    BloomFilter(long expectedEntries, double falsePositiveRate) {
+        long entries = Math.max(1, expectedEntries);
+        long bits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        words = new AtomicLongArray((int) Math.min(Integer.MAX_VALUE, (bits + 63) >>> 6));
+        bitCount = (long) words.length() << 6;
+        hashCount = Math.max(1, (int) Math.round((double) bits / entries * Math.log(2)));
+    }
+
+    void put(String key) {
+        long hash1 = hash(key, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            long mask = 1L << index;
+            words.accumulateAndGet((int) (index >>> 6), mask, (word, bit) -> word | bit);
+        }
+    }
+
+    boolean mightContain(String key) {
+        long hash1 = hash(key, 0x9E3779B97F4A7C15L);
+        long hash2 = hash(key, 0xC2B2AE3D27D4EB4FL);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitCount;
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a 加 MurmurHash3 的末尾混合，不同种子得到两个独立的哈希值
+    private static long hash(String key, long seed) {
+        long hash = 0xCBF29CE484222325L ^ seed;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -1,6 +1,9 @@
 package com.library.security;
 
+import com.library.entity.User;
+import com.library.service.UserService;
 import com.library.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -13,7 +16,6 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.ArrayList;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -21,6 +23,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenRevocationList tokenRevocationList;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
                                    FilterChain filterChain) throws ServletException, IOException {
@@ -31,12 +39,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String token = header.substring(7);
 
             try {
-                if (jwtUtils.validateToken(token) && !jwtUtils.isTokenExpired(token)) {
-                    String username = jwtUtils.getUsernameFromToken(token);
-                    String role = jwtUtils.getRoleFromToken(token);
+                // 每个请求只解析一次token，已验证的token直接命中缓存；刷新token和已吊销的token不能访问接口
+                Claims claims = jwtUtils.getClaimsFromToken(token);
+                if (claims != null && jwtUtils.isAccessToken(claims) && !tokenRevocationList.isRevoked(claims)) {
+                    String username = claims.getSubject();
+                    String role = claims.get("role", String.class);
+                    Long userId = jwtUtils.getUserIdFromClaims(claims);
+                    if (userId == null && LoginUser.ROLE_USER.equals(role)) {
+                        // 兼容不含用户ID的旧token
+                        User user = userService.findByUsername(username);
+                        userId = user != null ? user.getId() : null;
+                        if (userId != null) {
+                            jwtUtils.cacheUserId(token, claims, userId);
+                        }
+                    }
 
+                    // 权限来自已验签的角色声明，方法级权限校验不再查询数据库
+                    LoginUser loginUser = new LoginUser(userId, username, role);
                     UsernamePasswordAuthenticationToken authentication =
-                        new UsernamePasswordAuthenticationToken(username, null, new ArrayList<>());
+                        new UsernamePasswordAuthenticationToken(loginUser, null, loginUser.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
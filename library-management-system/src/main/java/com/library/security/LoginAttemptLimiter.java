@@ -0,0 +1,75 @@
+package com.library.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 按用户名和客户端IP限制登录尝试次数，在提交哈希计算之前拦截暴力破解流量
+@Component
+public class LoginAttemptLimiter {
+
+    private static final long MAXIMUM_KEYS = 100_000;
+
+    @Value("${library.login.max-attempts-per-username:10}")
+    private int maxAttemptsPerUsername;
+
+    @Value("${library.login.max-attempts-per-ip:100}")
+    private int maxAttemptsPerIp;
+
+    @Value("${library.login.window-ms:300000}")
+    private long windowMillis;
+
+    // 计数从窗口内第一次尝试开始，到期后整体清零
+    private Cache<String, AtomicInteger> usernameAttempts;
+
+    // IP -> 窗口内失败的次数
+    private Cache<String, AtomicInteger> ipAttempts;
+
+    @PostConstruct
+    public void init() {
+        usernameAttempts = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_KEYS)
+                .expireAfterWrite(windowMillis, TimeUnit.MILLISECONDS)
+                .build();
+        ipAttempts = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_KEYS)
+                .expireAfterWrite(windowMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    // 在提交哈希计算之前调用：记录该用户名的一次尝试，并检查IP的失败次数，超过任一上限时返回 false。
+    // 同一出口IP后面可能有很多正常用户，IP 只统计失败的尝试
+    public boolean tryAcquire(String username, String ip) {
+        int byUsername = increment(usernameAttempts, username);
+        return byUsername <= maxAttemptsPerUsername && failures(ip) < maxAttemptsPerIp;
+    }
+
+    // 用户名或密码错误时记录IP的一次失败
+    public void recordFailure(String ip) {
+        increment(ipAttempts, ip);
+    }
+
+    // 登录成功后清除该用户名的计数，IP 的失败计数保留
+    public void reset(String username) {
+        if (username != null) {
+            usernameAttempts.invalidate(username);
+        }
+    }
+
+    private int failures(String ip) {
+        AtomicInteger count = ip != null ? ipAttempts.getIfPresent(ip) : null;
+        return count != null ? count.get() : 0;
+    }
+
+    private static int increment(Cache<String, AtomicInteger> attempts, String key) {
+        if (key == null) {
+            return 0;
+        }
+        return attempts.get(key, k -> new AtomicInteger()).incrementAndGet();
+    }
+}
@@ -0,0 +1,75 @@
+package com.library.security;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serializable;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// 当前请求的认证主体，由 JwtAuthenticationFilter 从token中解析
+@Getter
+@AllArgsConstructor
+public class LoginUser implements Principal, Serializable {
+
+    public static final String ROLE_USER = "USER";
+
+    public static final String ROLE_ADMIN = "ADMIN";
+
+    // 管理员表 role 字段的取值，其他角色一律不授予权限
+    private static final Set<String> ADMIN_ROLES = new HashSet<>(Arrays.asList("admin", "librarian"));
+
+    // 角色 -> 权限列表，每个角色只构建一次，所有token共用
+    private static final ConcurrentMap<String, List<GrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private final Long userId;
+    private final String username;
+    private final String role;
+
+    // 普通用户的ID，管理员返回 null
+    public Long getReaderId() {
+        return ROLE_USER.equals(role) ? userId : null;
+    }
+
+    // 未知角色没有任何权限，也不进入缓存
+    public List<GrantedAuthority> getAuthorities() {
+        if (role == null || !(ROLE_USER.equals(role) || ADMIN_ROLES.contains(role))) {
+            return Collections.emptyList();
+        }
+        return AUTHORITIES.computeIfAbsent(role, LoginUser::buildAuthorities);
+    }
+
+    // 管理员表中的账户（admin、librarian）都具有 ROLE_ADMIN，另带自身角色以便细分权限
+    private static List<GrantedAuthority> buildAuthorities(String role) {
+        if (ROLE_USER.equals(role)) {
+            return Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + ROLE_USER));
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        authorities.add(new SimpleGrantedAuthority("ROLE_" + ROLE_ADMIN));
+        String own = role.toUpperCase(Locale.ROOT);
+        if (!ROLE_ADMIN.equals(own)) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_" + own));
+        }
+        return Collections.unmodifiableList(authorities);
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public String toString() {
+        return username;
+    }
+}
@@ -0,0 +1,113 @@
+package com.library.security;
+
+import com.library.common.Result;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// BCrypt 计算专用的有界线程池，登录高峰时哈希计算不占用 Tomcat 工作线程，队列满时直接拒绝。
+// 哈希结果交给应用的通用线程池（applicationTaskExecutor）完成，调用方后续的写库等阶段不占用哈希线程
+@Slf4j
+@Component
+public class PasswordHashingService {
+
+    @Resource
+    private PasswordEncoder passwordEncoder;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Resource(name = "applicationTaskExecutor")
+    private Executor completionExecutor;
+
+    // 0 表示取CPU核数的一半，留出另一半给其他请求
+    @Value("${library.password.threads:0}")
+    private int threads;
+
+    @Value("${library.password.queue-capacity:100}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "library.password.hashing", Tags.empty()).bindTo(meterRegistry);
+        rejected = meterRegistry.counter("library.password.hashing.rejected");
+        log.info("密码哈希线程池: {} 线程, 队列 {}", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    // 已存储的哈希强度低于当前配置时需要重新哈希
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    // 用本次登录的明文重新哈希并保存，失败时不影响登录
+    public void rehashIfNeeded(CharSequence rawPassword, String encodedPassword, Consumer<String> store) {
+        if (!upgradeEncoding(encodedPassword)) {
+            return;
+        }
+        encode(rawPassword).thenAccept(store).exceptionally(e -> {
+            log.warn("密码重新哈希失败: {}", e.getMessage());
+            return null;
+        });
+    }
+
+    // 线程池饱和时返回429，其他异常原样抛出
+    public static <T> Result<T> busyResult(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof RejectedExecutionException) {
+            return Result.error(429, "服务繁忙，请稍后重试");
+        }
+        throw e instanceof CompletionException ? (CompletionException) e : new CompletionException(e);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor).thenApplyAsync(Function.identity(), completionExecutor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.library.security;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.library.entity.TokenRevocation;
+import com.library.mapper.TokenRevocationMapper;
+import com.library.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// 内存中的token吊销列表：按token ID吊销单个token，按账户吊销该时间之前签发的全部token。
+// 每个请求的检查只访问内存，吊销记录落库，启动时加载，并定期同步其他实例新增的记录
+@Slf4j
+@Component
+public class TokenRevocationList {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Resource
+    private TokenRevocationMapper tokenRevocationMapper;
+
+    @Resource
+    private JwtUtils jwtUtils;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Value("${library.token-revocation.expected-entries:100000}")
+    private long expectedEntries;
+
+    // 每次同步重新读取已加载的最后若干条ID：自增ID在插入时分配、提交有先后，
+    // 较小ID的记录可能在较大ID之后才提交
+    @Value("${library.token-revocation.sync-overlap:1000}")
+    private long syncOverlap;
+
+    // 吊销的token ID -> token过期时间(毫秒)
+    private final ConcurrentMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+    // 账户标识 -> 吊销时间(毫秒)
+    private final ConcurrentMap<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    // 绝大多数token未被吊销，先查布隆过滤器，命中后再查精确集合
+    private volatile BloomFilter tokenFilter;
+
+    private volatile long lastLoadedId;
+
+    @PostConstruct
+    public void init() {
+        tokenFilter = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+        sync();
+        Gauge.builder("library.token.revocations", revokedTokens, Map::size)
+                .tag("type", "token")
+                .register(meterRegistry);
+        Gauge.builder("library.token.revocations", revokedBefore, Map::size)
+                .tag("type", "principal")
+                .register(meterRegistry);
+        log.info("token吊销列表加载完成，token {} 条，账户 {} 条", revokedTokens.size(), revokedBefore.size());
+    }
+
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        if (tokenId != null && tokenFilter.mightContain(tokenId) && revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        if (revokedBefore.isEmpty()) {
+            return false;
+        }
+        Long userId = jwtUtils.getUserIdFromClaims(claims);
+        if (userId == null) {
+            return false;
+        }
+        Long before = revokedBefore.get(principal(claims.get("role", String.class), userId));
+        // 签发时间只精确到秒，吊销当秒内新签发的token也会失效，重新登录即可
+        Date issuedAt = claims.getIssuedAt();
+        return before != null && (issuedAt == null || issuedAt.getTime() < before);
+    }
+
+    // 吊销单个token，返回 false 表示该token此前已被吊销或无法吊销。
+    // 加入token ID之前签发的token无法单独吊销，改为吊销该账户此前签发的全部token
+    public boolean revoke(Claims claims) {
+        String tokenId = claims.getId();
+        if (tokenId == null) {
+            Long userId = jwtUtils.getUserIdFromClaims(claims);
+            if (userId == null) {
+                return false;
+            }
+            revokeAll(claims.get("role", String.class), userId);
+            return true;
+        }
+        long expiresAt = claims.getExpiration().getTime();
+        if (revokedTokens.putIfAbsent(tokenId, expiresAt) != null) {
+            return false;
+        }
+        tokenFilter.put(tokenId);
+
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setTokenId(tokenId);
+        revocation.setRevokedAt(LocalDateTime.now());
+        revocation.setExpiresAt(toLocalDateTime(expiresAt));
+        tokenRevocationMapper.insert(revocation);
+        return true;
+    }
+
+    // 吊销账户此前签发的全部token，保留到最长的刷新token也已过期为止
+    public void revokeAll(String role, Long userId) {
+        long now = System.currentTimeMillis();
+        String principal = principal(role, userId);
+        revokedBefore.merge(principal, now, Math::max);
+
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setPrincipal(principal);
+        revocation.setRevokedAt(toLocalDateTime(now));
+        revocation.setExpiresAt(toLocalDateTime(now + jwtUtils.getRefreshExpiration()));
+        tokenRevocationMapper.insert(revocation);
+    }
+
+    // 加载上次之后新增的吊销记录，包括本实例自己写入的，重复应用不影响结果
+    @Scheduled(fixedDelayString = "${library.token-revocation.sync-interval-ms:30000}")
+    public synchronized void sync() {
+        QueryWrapper<TokenRevocation> wrapper = new QueryWrapper<>();
+        wrapper.gt("id", Math.max(lastLoadedId - syncOverlap, 0))
+               .gt("expires_at", LocalDateTime.now())
+               .orderByAsc("id");
+        List<TokenRevocation> rows = tokenRevocationMapper.selectList(wrapper);
+        for (TokenRevocation row : rows) {
+            if (row.getTokenId() != null) {
+                revokedTokens.putIfAbsent(row.getTokenId(), toEpochMilli(row.getExpiresAt()));
+                tokenFilter.put(row.getTokenId());
+            } else if (row.getPrincipal() != null) {
+                revokedBefore.merge(row.getPrincipal(), toEpochMilli(row.getRevokedAt()), Math::max);
+            }
+            lastLoadedId = Math.max(lastLoadedId, row.getId());
+        }
+    }
+
+    // 清理已过期的记录；布隆过滤器不能删除元素，用剩余的token ID重建
+    @Scheduled(fixedDelayString = "${library.token-revocation.purge-interval-ms:3600000}")
+    public void purge() {
+        long now = System.currentTimeMillis();
+        QueryWrapper<TokenRevocation> wrapper = new QueryWrapper<>();
+        wrapper.le("expires_at", LocalDateTime.now());
+        tokenRevocationMapper.delete(wrapper);
+
+        revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+        long principalExpiry = now - jwtUtils.getRefreshExpiration();
+        revokedBefore.values().removeIf(revokedAt -> revokedAt <= principalExpiry);
+
+        BloomFilter rebuilt = new BloomFilter(expectedEntries, FALSE_POSITIVE_RATE);
+        revokedTokens.keySet().forEach(rebuilt::put);
+        tokenFilter = rebuilt;
+        // 重建期间新吊销的token可能只写入了旧过滤器，切换后再补一遍
+        revokedTokens.keySet().forEach(rebuilt::put);
+    }
+
+    public static String principal(String role, Long userId) {
+        return (LoginUser.ROLE_USER.equals(role) ? "user:" : "admin:") + userId;
+    }
+
+    private static LocalDateTime toLocalDateTime(long epochMilli) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), ZoneId.systemDefault());
+    }
+
+    private static long toEpochMilli(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
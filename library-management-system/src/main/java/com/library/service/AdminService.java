@@ -7,5 +7,9 @@ public interface AdminService extends IService<Admin> {
 
     Admin findByUsername(String username);
 
+    Admin findForLogin(String username);
+
     boolean updateLastLoginTime(Long adminId);
+
+    boolean updatePasswordHash(Long adminId, String oldHash, String newHash);
 }
\ No newline at end of file
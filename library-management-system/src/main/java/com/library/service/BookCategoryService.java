@@ -9,5 +9,15 @@ public interface BookCategoryService extends IService<BookCategory> {
 
     List<BookCategory> getActiveCategories();
 
+    List<BookCategory> getAllCategories();
+
+    BookCategory getCategory(Long id);
+
     boolean checkCategoryExists(String categoryCode);
-}
\ No newline at end of file
+
+    boolean addCategory(BookCategory category);
+
+    boolean updateCategory(BookCategory category);
+
+    boolean deleteCategory(Long id);
+}
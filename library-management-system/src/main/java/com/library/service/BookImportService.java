@@ -0,0 +1,11 @@
+package com.library.service;
+
+import com.library.dto.BookImportReport;
+
+import java.io.InputStream;
+
+public interface BookImportService {
+
+    // 流式导入图书及副本，format 为 csv 或 jsonl
+    BookImportReport importBooks(InputStream input, String format);
+}
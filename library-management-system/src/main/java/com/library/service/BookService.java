@@ -2,21 +2,33 @@ package com.library.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.library.cache.BookSuggestTrie;
+import com.library.common.CursorPage;
+import com.library.dto.BookListItem;
 import com.library.entity.Book;
 
 import java.util.List;
 
 public interface BookService extends IService<Book> {
 
-    Page<Book> getBookPage(Page<Book> page, String title, String author, Long categoryId);
+    Page<BookListItem> getBookPage(Page<BookListItem> page, String title, String author, Long categoryId);
+
+    CursorPage<BookListItem> getBookCursorPage(String cursor, int size, boolean withTotal,
+                                               String title, String author, Long categoryId);
 
     boolean addBook(Book book);
 
+    boolean updateBook(Book book);
+
+    boolean deleteBook(Long bookId);
+
     boolean updateAvailableCopies(Long bookId, int change);
 
-    List<Book> getPopularBooks(int limit);
+    List<Book> getPopularBooks(int days, int limit);
 
-    List<Book> searchBooks(String keyword);
+    Page<BookListItem> searchBooks(Page<BookListItem> page, String keyword);
 
     Book getBookWithCategory(Long bookId);
+
+    List<BookSuggestTrie.Suggestion> suggestBooks(String prefix, int limit);
 }
\ No newline at end of file
@@ -2,21 +2,34 @@ package com.library.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.library.common.BorrowOutcome;
+import com.library.common.CursorPage;
+import com.library.dto.BatchItemResult;
 import com.library.entity.BorrowRecord;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface BorrowRecordService extends IService<BorrowRecord> {
 
     Page<BorrowRecord> getBorrowRecordsWithDetails(Page<BorrowRecord> page, Long userId, Integer status);
 
-    boolean borrowBook(Long userId, Long bookId);
+    CursorPage<BorrowRecord> getBorrowRecordCursorPage(String cursor, int size, boolean withTotal,
+                                                       Long userId, Integer status);
+
+    BorrowOutcome borrowBook(Long userId, Long bookId);
 
     boolean returnBook(Long userId, Long recordId);
 
+    List<BatchItemResult> borrowBooks(Long userId, List<Long> bookIds, Long adminId);
+
+    List<BatchItemResult> returnBooks(List<Long> recordIds);
+
     boolean renewBook(Long userId, Long recordId);
 
     List<BorrowRecord> getOverdueRecords();
 
-    boolean updateOverdueRecords();
+    int updateOverdueRecords();
+
+    int markOverdueRecords(List<Long> recordIds, LocalDateTime now);
 }
\ No newline at end of file
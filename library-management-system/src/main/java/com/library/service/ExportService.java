@@ -0,0 +1,16 @@
+package com.library.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+
+// 流式导出，逐行从数据库读出并写入输出流，format 为 csv 或 jsonl
+public interface ExportService {
+
+    long exportBorrowRecords(OutputStream out, String format, Long userId, Integer status,
+                             LocalDate from, LocalDate to) throws IOException;
+
+    long exportBooks(OutputStream out, String format, String title, String author, Long categoryId) throws IOException;
+
+    long exportUsers(OutputStream out, String format, String keyword) throws IOException;
+}
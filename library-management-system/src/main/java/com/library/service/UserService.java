@@ -2,17 +2,27 @@ package com.library.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.library.common.CursorPage;
+import com.library.dto.UserListItem;
 import com.library.entity.User;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface UserService extends IService<User> {
 
     User findByUsername(String username);
 
-    Page<User> getUserList(Page<User> page, String keyword);
+    User findForLogin(String username);
+
+    Page<UserListItem> getUserList(Page<UserListItem> page, String keyword);
+
+    CursorPage<UserListItem> getUserCursorPage(String cursor, int size, boolean withTotal, String keyword);
+
+    CompletableFuture<Boolean> register(User user);
 
-    boolean register(User user);
+    CompletableFuture<Boolean> updatePassword(Long userId, String oldPassword, String newPassword);
 
-    boolean updatePassword(Long userId, String oldPassword, String newPassword);
+    boolean updatePasswordHash(Long userId, String oldHash, String newHash);
 
     boolean updateUserStatus(Long userId, Integer status);
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.library.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.library.entity.Admin;
 import com.library.mapper.AdminMapper;
@@ -19,6 +20,15 @@ public class AdminServiceImpl extends ServiceImpl<AdminMapper, Admin> implements
         return this.getOne(wrapper);
     }
 
+    // 登录只查询认证和登录响应需要的列
+    @Override
+    public Admin findForLogin(String username) {
+        QueryWrapper<Admin> wrapper = new QueryWrapper<>();
+        wrapper.select("id", "username", "password", "real_name", "role", "status")
+               .eq("username", username);
+        return this.getOne(wrapper);
+    }
+
     @Override
     public boolean updateLastLoginTime(Long adminId) {
         Admin admin = new Admin();
@@ -26,4 +36,12 @@ public class AdminServiceImpl extends ServiceImpl<AdminMapper, Admin> implements
         admin.setLastLoginTime(LocalDateTime.now());
         return this.updateById(admin);
     }
+
+    @Override
+    public boolean updatePasswordHash(Long adminId, String oldHash, String newHash) {
+        return this.update(new UpdateWrapper<Admin>()
+                .set("password", newHash)
+                .eq("id", adminId)
+                .eq("password", oldHash));
+    }
 }
\ No newline at end of file
@@ -2,22 +2,35 @@ package com.library.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.library.cache.CategoryTreeCache;
 import com.library.entity.BookCategory;
 import com.library.mapper.BookCategoryMapper;
 import com.library.service.BookCategoryService;
+import com.library.utils.TransactionUtils;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.Resource;
 import java.util.List;
 
 @Service
 public class BookCategoryServiceImpl extends ServiceImpl<BookCategoryMapper, BookCategory> implements BookCategoryService {
 
+    @Resource
+    private CategoryTreeCache categoryTreeCache;
+
     @Override
     public List<BookCategory> getActiveCategories() {
-        QueryWrapper<BookCategory> wrapper = new QueryWrapper<>();
-        wrapper.eq("status", 1);
-        wrapper.orderByAsc("sort_order");
-        return this.list(wrapper);
+        return categoryTreeCache.getActiveCategories();
+    }
+
+    @Override
+    public List<BookCategory> getAllCategories() {
+        return categoryTreeCache.getAllCategories();
+    }
+
+    @Override
+    public BookCategory getCategory(Long id) {
+        return categoryTreeCache.get(id);
     }
 
     @Override
@@ -27,4 +40,26 @@ public class BookCategoryServiceImpl extends ServiceImpl<BookCategoryMapper, Boo
         wrapper.eq("is_deleted", 0);
         return this.count(wrapper) > 0;
     }
-}
\ No newline at end of file
+
+    @Override
+    public boolean addCategory(BookCategory category) {
+        return refreshIf(this.save(category));
+    }
+
+    @Override
+    public boolean updateCategory(BookCategory category) {
+        return refreshIf(this.updateById(category));
+    }
+
+    @Override
+    public boolean deleteCategory(Long id) {
+        return refreshIf(this.removeById(id));
+    }
+
+    private boolean refreshIf(boolean changed) {
+        if (changed) {
+            TransactionUtils.afterCommit(categoryTreeCache::refresh);
+        }
+        return changed;
+    }
+}
@@ -0,0 +1,455 @@
+package com.library.service.impl;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import com.library.cache.BookCopyPool;
+import com.library.cache.BookDetailCache;
+import com.library.cache.BookSearchIndex;
+import com.library.cache.BookSuggestTrie;
+import com.library.cache.CategoryTreeCache;
+import com.library.dto.BookImportReport;
+import com.library.entity.Book;
+import com.library.entity.BookCategory;
+import com.library.interceptor.CountCachingPaginationInnerInterceptor;
+import com.library.mapper.BookMapper;
+import com.library.service.BookImportService;
+import com.library.utils.CsvReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.Resource;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class BookImportServiceImpl implements BookImportService {
+
+    // 每批写入的行数，每批单独提交
+    private static final int CHUNK_SIZE = 500;
+
+    private static final int MAX_COPIES_PER_ROW = 1000;
+
+    // 单行（CSV 为单条记录）的最大字符数，超出的行整体记为错误，不会读入内存
+    private static final int MAX_ROW_CHARS = 64 * 1024;
+
+    // 行数据无法解析时记录错误信息的键
+    private static final String PARSE_ERROR = "#error";
+
+    // 按 ISBN 插入或更新图书，新副本数累加到总数和可借数上
+    private static final String UPSERT_BOOK_SQL =
+            "INSERT INTO books (isbn, title, author, publisher, publish_date, category_id, description, page_count, " +
+            "language, price, total_copies, available_copies, status) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 1) " +
+            "ON DUPLICATE KEY UPDATE title = VALUES(title), author = VALUES(author), " +
+            "publisher = COALESCE(VALUES(publisher), publisher), publish_date = COALESCE(VALUES(publish_date), publish_date), " +
+            "category_id = VALUES(category_id), description = COALESCE(VALUES(description), description), " +
+            "page_count = COALESCE(VALUES(page_count), page_count), language = VALUES(language), " +
+            "price = COALESCE(VALUES(price), price), total_copies = total_copies + VALUES(total_copies), " +
+            "available_copies = available_copies + VALUES(available_copies), is_deleted = 0";
+
+    private static final String INSERT_COPY_SQL =
+            "INSERT INTO book_records (book_id, barcode, location, status, price) VALUES (?, ?, ?, 1, ?)";
+
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private BookMapper bookMapper;
+
+    @Resource
+    private CategoryTreeCache categoryTreeCache;
+
+    @Resource
+    private BookDetailCache bookDetailCache;
+
+    @Resource
+    private BookCopyPool bookCopyPool;
+
+    @Resource
+    private BookSearchIndex bookSearchIndex;
+
+    @Resource
+    private BookSuggestTrie bookSuggestTrie;
+
+    @Resource
+    private CountCachingPaginationInnerInterceptor paginationInnerInterceptor;
+
+    // 单次导入的最大字节数
+    @Value("${library.import.max-bytes:209715200}")
+    private long maxBytes;
+
+    @Override
+    public BookImportReport importBooks(InputStream input, String format) {
+        long start = System.currentTimeMillis();
+        BookImportReport report = new BookImportReport();
+        Map<String, Long> categories = loadCategoryCodes();
+        List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new LimitedInputStream(input, maxBytes), StandardCharsets.UTF_8))) {
+            RowSource source = "jsonl".equalsIgnoreCase(format) ? new JsonLinesSource(reader) : new CsvSource(reader);
+            Map<String, String> values;
+            while ((values = source.next()) != null) {
+                report.setTotalRows(report.getTotalRows() + 1);
+                ImportRow row = new ImportRow(source.line());
+                String error = parse(values, categories, row);
+                if (error != null) {
+                    report.addError(row.line, error);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, report);
+                    chunk.clear();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("图书导入中止", e);
+            report.addError(report.getTotalRows(), "导入中止：" + e.getMessage());
+        }
+        if (!chunk.isEmpty()) {
+            writeChunk(chunk, report);
+        }
+
+        report.setElapsedMs(System.currentTimeMillis() - start);
+        report.setRowsPerSecond(report.getTotalRows() * 1000L / Math.max(report.getElapsedMs(), 1));
+        log.info("图书导入完成：共{}行，成功{}行，失败{}行，新增副本{}个，耗时{}ms，{}行/秒", report.getTotalRows(),
+                report.getImportedRows(), report.getFailedRows(), report.getCreatedCopies(),
+                report.getElapsedMs(), report.getRowsPerSecond());
+        return report;
+    }
+
+    private Map<String, Long> loadCategoryCodes() {
+        return categoryTreeCache.getActiveCategories().stream()
+                .collect(Collectors.toMap(BookCategory::getCategoryCode, BookCategory::getId, (a, b) -> a));
+    }
+
+    // 校验并转换一行数据，返回错误信息，成功时返回 null
+    private String parse(Map<String, String> values, Map<String, Long> categories, ImportRow row) {
+        if (values.containsKey(PARSE_ERROR)) {
+            return "格式错误：" + values.get(PARSE_ERROR);
+        }
+        row.isbn = values.get("isbn");
+        row.title = values.get("title");
+        row.author = values.get("author");
+        if (!StringUtils.hasText(row.isbn) || row.isbn.length() > 20) {
+            return "ISBN不能为空且不超过20个字符";
+        }
+        if (!StringUtils.hasText(row.title) || row.title.length() > 200) {
+            return "书名不能为空且不超过200个字符";
+        }
+        if (!StringUtils.hasText(row.author) || row.author.length() > 100) {
+            return "作者不能为空且不超过100个字符";
+        }
+        String categoryCode = values.get("categorycode");
+        row.categoryId = categoryCode != null ? categories.get(categoryCode) : null;
+        if (row.categoryId == null) {
+            return "分类编码不存在：" + categoryCode;
+        }
+
+        row.publisher = values.get("publisher");
+        row.description = values.get("description");
+        row.location = values.get("location");
+        String language = values.get("language");
+        row.language = StringUtils.hasText(language) ? language : "中文";
+        try {
+            String publishDate = values.get("publishdate");
+            row.publishDate = StringUtils.hasText(publishDate) ? LocalDate.parse(publishDate) : null;
+            String pageCount = values.get("pagecount");
+            row.pageCount = StringUtils.hasText(pageCount) ? Integer.valueOf(pageCount) : null;
+            String price = values.get("price");
+            row.price = StringUtils.hasText(price) ? new BigDecimal(price) : null;
+            String copies = values.get("copies");
+            row.copies = StringUtils.hasText(copies) ? Integer.parseInt(copies) : 1;
+        } catch (RuntimeException e) {
+            return "字段格式错误：" + e.getMessage();
+        }
+        if (row.copies < 0 || row.copies > MAX_COPIES_PER_ROW) {
+            return "副本数应在0-" + MAX_COPIES_PER_ROW + "之间";
+        }
+        return null;
+    }
+
+    private void writeChunk(List<ImportRow> rows, BookImportReport report) {
+        Set<Long> bookIds;
+        try {
+            bookIds = transactionTemplate.execute(status -> {
+                jdbcTemplate.batchUpdate(UPSERT_BOOK_SQL, rows, rows.size(), (ps, row) -> {
+                    ps.setString(1, row.isbn);
+                    ps.setString(2, row.title);
+                    ps.setString(3, row.author);
+                    ps.setString(4, row.publisher);
+                    ps.setObject(5, row.publishDate != null ? Date.valueOf(row.publishDate) : null, Types.DATE);
+                    ps.setLong(6, row.categoryId);
+                    ps.setString(7, row.description);
+                    ps.setObject(8, row.pageCount, Types.INTEGER);
+                    ps.setString(9, row.language);
+                    ps.setBigDecimal(10, row.price);
+                    ps.setInt(11, row.copies);
+                    ps.setInt(12, row.copies);
+                });
+                Map<String, Long> idsByIsbn = selectIdsByIsbn(rows);
+                insertCopies(rows, idsByIsbn);
+                return new HashSet<>(idsByIsbn.values());
+            });
+        } catch (RuntimeException e) {
+            log.warn("图书导入批次写入失败，第{}-{}行", rows.get(0).line, rows.get(rows.size() - 1).line, e);
+            for (ImportRow row : rows) {
+                report.addError(row.line, "批次写入失败：" + e.getMessage());
+            }
+            return;
+        }
+
+        report.setImportedRows(report.getImportedRows() + rows.size());
+        report.setCreatedCopies(report.getCreatedCopies() + rows.stream().mapToLong(row -> row.copies).sum());
+        refreshCaches(bookIds);
+    }
+
+    // 锁定本批的图书行，同一图书的并发导入在此排队，之后按已有副本数生成的条码序号不会重复
+    private Map<String, Long> selectIdsByIsbn(List<ImportRow> rows) {
+        Set<String> isbns = rows.stream().map(row -> row.isbn).collect(Collectors.toSet());
+        String sql = "SELECT id, isbn FROM books WHERE isbn IN (" + placeholders(isbns.size()) + ") "
+                + "ORDER BY id FOR UPDATE";
+        Map<String, Long> ids = new HashMap<>(isbns.size() * 2);
+        jdbcTemplate.query(sql, rs -> {
+            ids.put(rs.getString("isbn"), rs.getLong("id"));
+        }, isbns.toArray());
+        return ids;
+    }
+
+    // 条码格式：BK + 10位图书ID + 4位序号，序号接在该图书已有副本之后
+    private void insertCopies(List<ImportRow> rows, Map<String, Long> idsByIsbn) {
+        if (rows.stream().allMatch(row -> row.copies == 0)) {
+            return;
+        }
+        Collection<Long> bookIds = idsByIsbn.values();
+        String sql = "SELECT book_id, COUNT(*) AS copies FROM book_records WHERE book_id IN ("
+                + placeholders(bookIds.size()) + ") GROUP BY book_id";
+        Map<Long, Integer> sequences = new HashMap<>(bookIds.size() * 2);
+        jdbcTemplate.query(sql, rs -> {
+            sequences.put(rs.getLong("book_id"), rs.getInt("copies"));
+        }, bookIds.toArray());
+
+        List<Object[]> copies = new ArrayList<>();
+        for (ImportRow row : rows) {
+            Long bookId = idsByIsbn.get(row.isbn);
+            for (int i = 0; i < row.copies; i++) {
+                int sequence = sequences.merge(bookId, 1, Integer::sum);
+                copies.add(new Object[]{bookId, String.format("BK%010d%04d", bookId, sequence), row.location, row.price});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_COPY_SQL, copies);
+    }
+
+    // 批量写入绕过了 MyBatis，需要手动刷新缓存和索引
+    private void refreshCaches(Set<Long> bookIds) {
+        paginationInnerInterceptor.invalidateTable("books");
+        paginationInnerInterceptor.invalidateTable("book_records");
+        for (Book book : bookMapper.selectBatchIds(bookIds)) {
+            bookDetailCache.evict(book.getId());
+            bookCopyPool.evict(book.getId());
+            bookSearchIndex.update(book);
+            bookSuggestTrie.update(book);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    // 列名统一为小写并去掉下划线，category_code 与 categoryCode 等价
+    private static String normalizeKey(String key) {
+        return key.trim().replace("_", "").toLowerCase();
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private interface RowSource {
+
+        Map<String, String> next() throws IOException;
+
+        long line();
+    }
+
+    private static class CsvSource implements RowSource {
+
+        private final CsvReader reader;
+        private List<String> header;
+
+        private CsvSource(Reader reader) {
+            this.reader = new CsvReader(reader, MAX_ROW_CHARS);
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            if (header == null) {
+                List<String> columns = reader.readRecord();
+                if (columns == null) {
+                    return null;
+                }
+                if (reader.isTruncated()) {
+                    throw new IOException("表头超过" + MAX_ROW_CHARS + "个字符");
+                }
+                header = columns.stream().map(BookImportServiceImpl::normalizeKey).collect(Collectors.toList());
+            }
+            List<String> fields = reader.readRecord();
+            if (fields == null) {
+                return null;
+            }
+            if (reader.isTruncated()) {
+                return Collections.singletonMap(PARSE_ERROR, "超过" + MAX_ROW_CHARS + "个字符");
+            }
+            Map<String, String> values = new HashMap<>(header.size() * 2);
+            for (int i = 0; i < header.size() && i < fields.size(); i++) {
+                values.put(header.get(i), trimToNull(fields.get(i)));
+            }
+            return values;
+        }
+
+        @Override
+        public long line() {
+            return reader.getRecordLineNumber();
+        }
+    }
+
+    private static class JsonLinesSource implements RowSource {
+
+        private final BufferedReader reader;
+        private final StringBuilder buffer = new StringBuilder();
+        private boolean truncated;
+        private long line;
+
+        private JsonLinesSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            String text;
+            do {
+                text = readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+            } while (!truncated && text.trim().isEmpty());
+
+            if (truncated) {
+                return Collections.singletonMap(PARSE_ERROR, "超过" + MAX_ROW_CHARS + "个字符");
+            }
+            Map<String, String> values = new HashMap<>();
+            try {
+                JSONObject object = JSON.parseObject(text);
+                for (Map.Entry<String, Object> entry : object.entrySet()) {
+                    Object value = entry.getValue();
+                    values.put(normalizeKey(entry.getKey()), value != null ? trimToNull(value.toString()) : null);
+                }
+            } catch (RuntimeException e) {
+                values.put(PARSE_ERROR, e.getMessage());
+            }
+            return values;
+        }
+
+        @Override
+        public long line() {
+            return line;
+        }
+
+        // 与 BufferedReader.readLine 相同，但只保留前 MAX_ROW_CHARS 个字符
+        private String readLine() throws IOException {
+            buffer.setLength(0);
+            truncated = false;
+            int c;
+            while ((c = reader.read()) != -1 && c != '\n') {
+                if (buffer.length() < MAX_ROW_CHARS) {
+                    buffer.append((char) c);
+                } else {
+                    truncated = true;
+                }
+            }
+            if (c == -1 && buffer.length() == 0) {
+                return null;
+            }
+            int end = buffer.length();
+            if (end > 0 && buffer.charAt(end - 1) == '\r') {
+                buffer.setLength(end - 1);
+            }
+            return buffer.toString();
+        }
+    }
+
+    // 超过大小限制时中止读取
+    private static class LimitedInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                consume(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                consume(n);
+            }
+            return n;
+        }
+
+        private void consume(long n) throws IOException {
+            remaining -= n;
+            if (remaining < 0) {
+                throw new IOException("文件超过大小限制");
+            }
+        }
+    }
+
+    private static class ImportRow {
+        private final long line;
+        private String isbn;
+        private String title;
+        private String author;
+        private String publisher;
+        private LocalDate publishDate;
+        private Long categoryId;
+        private String description;
+        private Integer pageCount;
+        private String language;
+        private BigDecimal price;
+        private int copies;
+        private String location;
+
+        private ImportRow(long line) {
+            this.line = line;
+        }
+    }
+}
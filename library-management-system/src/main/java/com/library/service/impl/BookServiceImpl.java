@@ -3,6 +3,15 @@ package com.library.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.library.cache.BookCopyPool;
+import com.library.cache.BookDetailCache;
+import com.library.cache.BookPopularityTracker;
+import com.library.cache.BookSearchIndex;
+import com.library.cache.BookSuggestTrie;
+import com.library.cache.CategoryTreeCache;
+import com.library.common.CursorPage;
+import com.library.common.PageCursor;
+import com.library.dto.BookListItem;
 import com.library.entity.Book;
 import com.library.mapper.BookMapper;
 import com.library.service.BookService;
@@ -10,7 +19,14 @@ import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BookServiceImpl extends ServiceImpl<BookMapper, Book> implements BookService {
@@ -18,59 +34,155 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book> implements Bo
     @Resource
     private BookMapper bookMapper;
 
+    @Resource
+    private BookDetailCache bookDetailCache;
+
+    @Resource
+    private BookCopyPool bookCopyPool;
+
+    @Resource
+    private BookSearchIndex bookSearchIndex;
+
+    @Resource
+    private BookSuggestTrie bookSuggestTrie;
+
+    @Resource
+    private BookPopularityTracker bookPopularityTracker;
+
+    @Resource
+    private CategoryTreeCache categoryTreeCache;
+
     @Override
-    public Page<Book> getBookPage(Page<Book> page, String title, String author, Long categoryId) {
-        return bookMapper.selectBooksWithCategory(page, title, author, categoryId);
+    public Page<BookListItem> getBookPage(Page<BookListItem> page, String title, String author, Long categoryId) {
+        return bookMapper.selectBookListItems(page, title, author, categoryIds(categoryId));
+    }
+
+    @Override
+    public CursorPage<BookListItem> getBookCursorPage(String cursor, int size, boolean withTotal,
+                                                      String title, String author, Long categoryId) {
+        Set<Long> categoryIds = categoryIds(categoryId);
+        List<BookListItem> rows = bookMapper.selectBookListItemsAfter(title, author, categoryIds,
+                PageCursor.decode(cursor), size + 1);
+        CursorPage<BookListItem> page = CursorPage.of(rows, size, BookListItem::getCreateTime, BookListItem::getId);
+        if (withTotal) {
+            page.setTotal(bookMapper.countBooks(title, author, categoryIds));
+        }
+        return page;
     }
 
     @Override
     public boolean addBook(Book book) {
         book.setAvailableCopies(book.getTotalCopies());
         book.setStatus(1);
-        return this.save(book);
+        boolean saved = this.save(book);
+        if (saved) {
+            bookSearchIndex.update(book);
+            bookSuggestTrie.update(book);
+        }
+        return saved;
     }
 
     @Override
-    public boolean updateAvailableCopies(Long bookId, int change) {
-        Book book = this.getById(bookId);
-        if (book != null) {
-            int newAvailable = book.getAvailableCopies() + change;
-            if (newAvailable >= 0 && newAvailable <= book.getTotalCopies()) {
-                book.setAvailableCopies(newAvailable);
-                return this.updateById(book);
+    public boolean updateBook(Book book) {
+        boolean updated = this.updateById(book);
+        if (updated) {
+            bookDetailCache.evict(book.getId());
+            bookCopyPool.evict(book.getId());
+            Book saved = this.getById(book.getId());
+            if (saved != null) {
+                bookSearchIndex.update(saved);
+                bookSuggestTrie.update(saved);
             }
         }
-        return false;
+        return updated;
+    }
+
+    @Override
+    public boolean deleteBook(Long bookId) {
+        boolean removed = this.removeById(bookId);
+        if (removed) {
+            bookDetailCache.evict(bookId);
+            bookCopyPool.evict(bookId);
+            bookSearchIndex.remove(bookId);
+            bookSuggestTrie.remove(bookId);
+        }
+        return removed;
     }
 
     @Override
-    public List<Book> getPopularBooks(int limit) {
-        QueryWrapper<Book> wrapper = new QueryWrapper<>();
-        wrapper.orderByDesc("total_copies");
-        wrapper.last("LIMIT " + limit);
-        wrapper.eq("status", 1);
-        return this.list(wrapper);
+    public boolean updateAvailableCopies(Long bookId, int change) {
+        boolean updated = bookMapper.updateAvailableCopies(bookId, change) > 0;
+        if (updated) {
+            bookDetailCache.evict(bookId);
+        }
+        return updated;
     }
 
     @Override
-    public List<Book> searchBooks(String keyword) {
-        QueryWrapper<Book> wrapper = new QueryWrapper<>();
-        if (StringUtils.hasText(keyword)) {
-            wrapper.and(w -> w.like("title", keyword)
-                    .or().like("author", keyword)
-                    .or().like("isbn", keyword));
+    public List<Book> getPopularBooks(int days, int limit) {
+        limit = Math.max(1, Math.min(limit, BookPopularityTracker.TOP_SIZE));
+        List<Long> ids = bookPopularityTracker.getTopBooks(days, limit);
+        List<Book> books = new ArrayList<>(limit);
+        if (!ids.isEmpty()) {
+            Map<Long, Book> bookMap = this.listByIds(ids).stream()
+                    .filter(book -> Integer.valueOf(1).equals(book.getStatus()))
+                    .collect(Collectors.toMap(Book::getId, Function.identity()));
+            ids.stream().map(bookMap::get).filter(Objects::nonNull).forEach(books::add);
         }
-        wrapper.eq("status", 1);
-        wrapper.orderByDesc("create_time");
-        return this.list(wrapper);
+
+        // 借阅数据不足时用新书补齐
+        if (books.size() < limit) {
+            Set<Long> included = books.stream().map(Book::getId).collect(Collectors.toSet());
+            QueryWrapper<Book> wrapper = new QueryWrapper<>();
+            wrapper.eq("status", 1);
+            wrapper.orderByDesc("create_time");
+            Page<Book> latest = this.page(new Page<>(1, limit + included.size(), false), wrapper);
+            for (Book book : latest.getRecords()) {
+                if (books.size() >= limit) {
+                    break;
+                }
+                if (!included.contains(book.getId())) {
+                    books.add(book);
+                }
+            }
+        }
+        return books;
+    }
+
+    @Override
+    public Page<BookListItem> searchBooks(Page<BookListItem> page, String keyword) {
+        if (!StringUtils.hasText(keyword) || !bookSearchIndex.isReady()) {
+            return bookMapper.searchBookListItems(page, keyword);
+        }
+
+        // 从倒排索引取当前页的图书ID，再按主键加载并保持排序
+        BookSearchIndex.SearchResult result = bookSearchIndex.search(keyword, page.offset(), (int) page.getSize());
+        page.setTotal(result.getTotal());
+        if (result.getIds().isEmpty()) {
+            page.setRecords(Collections.emptyList());
+            return page;
+        }
+        Map<Long, BookListItem> books = bookMapper.selectBookListItemsByIds(result.getIds()).stream()
+                .collect(Collectors.toMap(BookListItem::getId, Function.identity()));
+        page.setRecords(result.getIds().stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        return page;
     }
 
     @Override
     public Book getBookWithCategory(Long bookId) {
-        return bookMapper.selectBooksWithCategory(new Page<>(1, 1), null, null, null)
-                .getRecords().stream()
-                .filter(book -> book.getId().equals(bookId))
-                .findFirst()
-                .orElse(null);
+        return bookDetailCache.get(bookId);
+    }
+
+    @Override
+    public List<BookSuggestTrie.Suggestion> suggestBooks(String prefix, int limit) {
+        return bookSuggestTrie.suggest(prefix, Math.min(limit, BookSuggestTrie.TOP_K));
+    }
+
+    // 按分类筛选时包含全部子分类
+    private Set<Long> categoryIds(Long categoryId) {
+        return categoryId != null ? categoryTreeCache.getDescendantIds(categoryId) : null;
     }
-}
\ No newline at end of file
+}
@@ -3,140 +3,351 @@ package com.library.service.impl;
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.library.cache.BookCopyPool;
+import com.library.cache.BookDetailCache;
+import com.library.cache.BookPopularityTracker;
+import com.library.cache.LoanDueIndex;
+import com.library.common.BorrowOutcome;
+import com.library.common.CursorPage;
+import com.library.common.PageCursor;
+import com.library.dto.BatchItemResult;
 import com.library.entity.*;
 import com.library.mapper.*;
-import com.library.service.BookRecordMapper;
-import com.library.service.BookService;
 import com.library.service.BorrowRecordService;
+import com.library.utils.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.interceptor.TransactionAspectSupport;
 
 import javax.annotation.Resource;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class BorrowRecordServiceImpl extends ServiceImpl<BorrowRecordMapper, BorrowRecord> implements BorrowRecordService {
 
+    // 逾期罚金（每天0.5元）
+    private static final BigDecimal FINE_PER_DAY = new BigDecimal("0.50");
+
+    private static final int OVERDUE_BATCH_SIZE = 1000;
+
     @Resource
     private BorrowRecordMapper borrowRecordMapper;
 
     @Resource
-    private BookService bookService;
+    private BookRecordMapper bookRecordMapper;
 
     @Resource
-    private BookRecordMapper bookRecordMapper;
+    private BookMapper bookMapper;
 
     @Resource
-    private UserService userService;
+    private UserMapper userMapper;
 
     @Resource
-    private BookMapper bookMapper;
+    private BookCopyPool bookCopyPool;
+
+    @Resource
+    private BookDetailCache bookDetailCache;
+
+    @Resource
+    private BookPopularityTracker bookPopularityTracker;
+
+    @Resource
+    private LoanDueIndex loanDueIndex;
+
+    @Resource
+    private MeterRegistry meterRegistry;
 
     @Override
     public Page<BorrowRecord> getBorrowRecordsWithDetails(Page<BorrowRecord> page, Long userId, Integer status) {
         return borrowRecordMapper.selectBorrowRecordsWithDetails(page, userId, status);
     }
 
+    @Override
+    public CursorPage<BorrowRecord> getBorrowRecordCursorPage(String cursor, int size, boolean withTotal,
+                                                              Long userId, Integer status) {
+        List<BorrowRecord> rows = borrowRecordMapper.selectBorrowRecordsWithDetailsAfter(userId, status,
+                PageCursor.decode(cursor), size + 1);
+        CursorPage<BorrowRecord> page = CursorPage.of(rows, size, BorrowRecord::getBorrowDate, BorrowRecord::getId);
+        if (withTotal) {
+            page.setTotal(borrowRecordMapper.countBorrowRecords(userId, status));
+        }
+        return page;
+    }
+
     @Override
     @Transactional
-    public boolean borrowBook(Long userId, Long bookId) {
+    public BorrowOutcome borrowBook(Long userId, Long bookId) {
+        BorrowOutcome outcome = doBorrowBook(userId, bookId);
+        recordOutcome(outcome, "single", 1);
+        return outcome;
+    }
+
+    private BorrowOutcome doBorrowBook(Long userId, Long bookId) {
         try {
-            // 检查用户是否存在且状态正常
-            User user = userService.getById(userId);
-            if (user == null || user.getStatus() != 1) {
-                return false;
+            // 优先从副本池按ID占用副本，池中没有时回退到数据库占用
+            Long bookRecordId = bookCopyPool.acquire(bookId);
+            if (bookRecordId == null && bookRecordMapper.updateAvailableBookRecordStatus(bookId, 0) == 0) {
+                return bookMapper.selectCount(new QueryWrapper<Book>().eq("id", bookId)) == 0
+                        ? BorrowOutcome.BOOK_NOT_FOUND : BorrowOutcome.NO_AVAILABLE_COPY;
             }
 
-            // 检查图书是否存在且有可借副本
-            Book book = bookService.getById(bookId);
-            if (book == null || book.getStatus() != 1 || book.getAvailableCopies() <= 0) {
-                return false;
+            // 创建借阅记录，同时校验用户状态和是否已借阅该书且未归还
+            LocalDateTime now = LocalDateTime.now();
+            BorrowRecord borrowRecord = new BorrowRecord();
+            borrowRecord.setUserId(userId);
+            borrowRecord.setBookId(bookId);
+            borrowRecord.setBookRecordId(bookRecordId);
+            borrowRecord.setBorrowDate(now);
+            borrowRecord.setDueDate(now.plusDays(30)); // 默认借阅30天
+            if (borrowRecordMapper.insertForClaimedBookRecord(borrowRecord) == 0) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                // 失败时才查询具体原因
+                return userMapper.selectCount(new QueryWrapper<User>().eq("id", userId).eq("status", 1)) == 0
+                        ? BorrowOutcome.USER_DISABLED : BorrowOutcome.ALREADY_BORROWED;
             }
 
-            // 检查用户是否已经借过这本书且未归还
-            QueryWrapper<BorrowRecord> wrapper = new QueryWrapper<>();
-            wrapper.eq("user_id", userId)
-                   .eq("book_id", bookId)
-                   .eq("status", 1);
-            if (this.count(wrapper) > 0) {
-                return false; // 已经借过且未归还
+            // 最后扣减可借数量，缩短图书行锁的持有时间
+            if (bookMapper.decreaseAvailableCopies(bookId) == 0) {
+                TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                return BorrowOutcome.NO_AVAILABLE_COPY;
             }
 
-            // 获取一个可借的图书副本
-            QueryWrapper<BookRecord> recordWrapper = new QueryWrapper<>();
-            recordWrapper.eq("book_id", bookId)
-                         .eq("status", 1)
-                         .last("LIMIT 1");
-            BookRecord bookRecord = bookRecordMapper.selectOne(recordWrapper);
+            bookDetailCache.evict(bookId);
+            TransactionUtils.afterCommit(() -> {
+                bookPopularityTracker.recordBorrow(bookId);
+                loanDueIndex.put(borrowRecord.getId(), borrowRecord.getDueDate());
+            });
+            return BorrowOutcome.SUCCESS;
+
+        } catch (Exception e) {
+            log.error("借阅图书失败", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return BorrowOutcome.ERROR;
+        }
+    }
 
-            if (bookRecord == null) {
+    @Override
+    @Transactional
+    public boolean returnBook(Long userId, Long recordId) {
+        try {
+            BorrowRecord borrowRecord = this.getById(recordId);
+            if (borrowRecord == null || !borrowRecord.getUserId().equals(userId)
+                    || (borrowRecord.getStatus() != 1 && borrowRecord.getStatus() != 3)) {
                 return false;
             }
 
-            // 更新副本状态为借出
-            bookRecord.setStatus(0);
-            bookRecordMapper.updateById(bookRecord);
+            // 条件更新借阅记录状态，并发归还时只有一个请求成功
+            if (borrowRecordMapper.markReturned(recordId, userId, LocalDateTime.now(), FINE_PER_DAY) == 0) {
+                return false;
+            }
+
+            // 更新副本状态为可借；早期的借阅记录没有关联副本
+            Long bookRecordId = borrowRecord.getBookRecordId();
+            if (bookRecordId != null) {
+                bookRecordMapper.returnBookRecord(bookRecordId);
+            }
 
             // 更新图书可借数量
-            book.setAvailableCopies(book.getAvailableCopies() - 1);
-            bookService.updateById(book);
+            bookMapper.updateAvailableCopies(borrowRecord.getBookId(), 1);
 
-            // 创建借阅记录
-            BorrowRecord borrowRecord = new BorrowRecord();
-            borrowRecord.setUserId(userId);
-            borrowRecord.setBookId(bookId);
-            borrowRecord.setBookRecordId(bookRecord.getId());
-            borrowRecord.setBorrowDate(LocalDateTime.now());
-            borrowRecord.setDueDate(LocalDateTime.now().plusDays(30)); // 默认借阅30天
-            borrowRecord.setRenewCount(0);
-            borrowRecord.setStatus(1); // 借阅中
-            borrowRecord.setFineAmount(BigDecimal.ZERO);
+            bookDetailCache.evict(borrowRecord.getBookId());
+
+            // 提交后副本回到副本池
+            TransactionUtils.afterCommit(() -> {
+                if (bookRecordId != null) {
+                    bookCopyPool.release(borrowRecord.getBookId(), bookRecordId);
+                }
+                loanDueIndex.remove(recordId);
+            });
 
-            return this.save(borrowRecord);
+            return true;
 
         } catch (Exception e) {
-            log.error("借阅图书失败", e);
+            log.error("归还图书失败", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
             return false;
         }
     }
 
     @Override
     @Transactional
-    public boolean returnBook(Long userId, Long recordId) {
+    public List<BatchItemResult> borrowBooks(Long userId, List<Long> bookIds, Long adminId) {
         try {
-            BorrowRecord borrowRecord = this.getById(recordId);
-            if (borrowRecord == null || !borrowRecord.getUserId().equals(userId) || borrowRecord.getStatus() != 1) {
-                return false;
+            User user = userMapper.selectOne(new QueryWrapper<User>().select("id", "status").eq("id", userId));
+            if (user == null || user.getStatus() != 1) {
+                return failBatch(bookIds, BorrowOutcome.USER_DISABLED);
             }
 
-            // 更新借阅记录状态
-            borrowRecord.setStatus(2); // 已归还
-            borrowRecord.setReturnDate(LocalDateTime.now());
-            this.updateById(borrowRecord);
+            // 先按图书状态筛掉不可借的图书，它们的副本不需要加锁
+            Set<Long> pending = new LinkedHashSet<>(bookIds);
+            Map<Long, BorrowOutcome> failures = new HashMap<>();
+            Map<Long, Book> books = bookMapper.selectList(new QueryWrapper<Book>()
+                            .select("id", "status", "available_copies").in("id", pending))
+                    .stream().collect(Collectors.toMap(Book::getId, Function.identity()));
+            for (Long bookId : pending) {
+                Book book = books.get(bookId);
+                if (book == null) {
+                    failures.put(bookId, BorrowOutcome.BOOK_NOT_FOUND);
+                } else if (!isBorrowable(book)) {
+                    failures.put(bookId, BorrowOutcome.NO_AVAILABLE_COPY);
+                }
+            }
+            pending.removeAll(failures.keySet());
+
+            Map<Long, Long> copies = new HashMap<>();
+            if (!pending.isEmpty()) {
+                // 加锁顺序：副本 -> 用户 -> 图书，与单本借阅一致；每本书只占用一个副本，按图书ID顺序占用
+                for (Long bookId : new TreeSet<>(pending)) {
+                    Long bookRecordId = claimCopy(bookId);
+                    if (bookRecordId != null) {
+                        copies.put(bookId, bookRecordId);
+                    }
+                }
+                if (userMapper.lockActiveUser(userId) == null) {
+                    TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+                    return failBatch(bookIds, BorrowOutcome.USER_DISABLED);
+                }
+                Set<Long> borrowed = new HashSet<>(borrowRecordMapper.selectActiveBookIds(userId, pending));
+                Map<Long, Book> lockedBooks = bookMapper.lockBooks(pending).stream()
+                        .collect(Collectors.toMap(Book::getId, Function.identity()));
+                for (Long bookId : pending) {
+                    if (borrowed.contains(bookId)) {
+                        failures.put(bookId, BorrowOutcome.ALREADY_BORROWED);
+                    } else if (!copies.containsKey(bookId) || !lockedBooks.containsKey(bookId)
+                            || !isBorrowable(lockedBooks.get(bookId))) {
+                        failures.put(bookId, BorrowOutcome.NO_AVAILABLE_COPY);
+                    }
+                }
+                pending.removeAll(failures.keySet());
+                releaseCopies(failures.keySet(), copies);
+            }
 
-            // 更新副本状态为可借
-            BookRecord bookRecord = bookRecordMapper.selectById(borrowRecord.getBookRecordId());
-            if (bookRecord != null) {
-                bookRecord.setStatus(1);
-                bookRecordMapper.updateById(bookRecord);
+            Map<Long, Long> recordIds = new HashMap<>();
+            if (!pending.isEmpty()) {
+                LocalDateTime now = LocalDateTime.now();
+                List<BorrowRecord> borrowRecords = new ArrayList<>(pending.size());
+                for (Long bookId : pending) {
+                    BorrowRecord borrowRecord = new BorrowRecord();
+                    borrowRecord.setUserId(userId);
+                    borrowRecord.setBookId(bookId);
+                    borrowRecord.setBookRecordId(copies.get(bookId));
+                    borrowRecord.setAdminId(adminId);
+                    borrowRecord.setBorrowDate(now);
+                    borrowRecord.setDueDate(now.plusDays(30)); // 默认借阅30天
+                    borrowRecords.add(borrowRecord);
+                }
+
+                // 图书行均已加锁，更新行数不符说明数据不一致，整批回滚
+                if (bookMapper.decreaseAvailableCopiesBatch(pending) != pending.size()) {
+                    throw new IllegalStateException("可借数量与锁定结果不一致");
+                }
+                borrowRecordMapper.insertBorrowRecords(borrowRecords);
+
+                pending.forEach(bookDetailCache::evict);
+                TransactionUtils.afterCommit(() -> borrowRecords.forEach(borrowRecord -> {
+                    bookPopularityTracker.recordBorrow(borrowRecord.getBookId());
+                    loanDueIndex.put(borrowRecord.getId(), borrowRecord.getDueDate());
+                }));
+                borrowRecords.forEach(borrowRecord -> recordIds.put(borrowRecord.getBookId(), borrowRecord.getId()));
             }
 
-            // 更新图书可借数量
-            Book book = bookService.getById(borrowRecord.getBookId());
-            if (book != null) {
-                book.setAvailableCopies(book.getAvailableCopies() + 1);
-                bookService.updateById(book);
+            recordOutcome(BorrowOutcome.SUCCESS, "batch", recordIds.size());
+            failures.values().forEach(outcome -> recordOutcome(outcome, "batch", 1));
+            Map<Long, String> messages = new HashMap<>();
+            failures.forEach((bookId, outcome) -> messages.put(bookId, outcome.getMessage()));
+            return toResults(bookIds, messages, recordIds, BorrowOutcome.SUCCESS.getMessage());
+
+        } catch (Exception e) {
+            log.error("批量借阅图书失败", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return failBatch(bookIds, BorrowOutcome.ERROR);
+        }
+    }
+
+    // 占用一个可借副本：优先从副本池按ID占用，池中没有时用 LIMIT 1 条件更新占用，不锁定其他副本
+    private Long claimCopy(Long bookId) {
+        Long bookRecordId = bookCopyPool.acquire(bookId);
+        if (bookRecordId == null && bookRecordMapper.updateAvailableBookRecordStatus(bookId, 0) > 0) {
+            bookRecordId = bookRecordMapper.selectLastInsertId();
+        }
+        return bookRecordId;
+    }
+
+    // 未能借出的图书退回已占用的副本，提交后放回副本池
+    private void releaseCopies(Collection<Long> bookIds, Map<Long, Long> copies) {
+        Map<Long, Long> released = new HashMap<>();
+        for (Long bookId : bookIds) {
+            Long bookRecordId = copies.remove(bookId);
+            if (bookRecordId != null) {
+                released.put(bookId, bookRecordId);
             }
+        }
+        if (released.isEmpty()) {
+            return;
+        }
+        bookRecordMapper.returnBookRecords(released.values());
+        TransactionUtils.afterCommit(() -> released.forEach(bookCopyPool::release));
+    }
 
-            return true;
+    @Override
+    @Transactional
+    public List<BatchItemResult> returnBooks(List<Long> recordIds) {
+        try {
+            Set<Long> pending = new LinkedHashSet<>(recordIds);
+            Map<Long, String> failures = new HashMap<>();
+            Map<Long, BorrowRecord> borrowRecords = borrowRecordMapper.lockBorrowRecords(pending).stream()
+                    .collect(Collectors.toMap(BorrowRecord::getId, Function.identity()));
+            for (Long recordId : pending) {
+                BorrowRecord borrowRecord = borrowRecords.get(recordId);
+                if (borrowRecord == null) {
+                    failures.put(recordId, "借阅记录不存在");
+                } else if (borrowRecord.getStatus() != 1 && borrowRecord.getStatus() != 3) {
+                    failures.put(recordId, "该记录已归还");
+                }
+            }
+            pending.removeAll(failures.keySet());
+
+            Map<Long, Long> returned = new HashMap<>();
+            if (!pending.isEmpty()) {
+                if (borrowRecordMapper.markReturnedBatch(pending, LocalDateTime.now(), FINE_PER_DAY) != pending.size()) {
+                    throw new IllegalStateException("借阅记录状态与锁定结果不一致");
+                }
+
+                List<BorrowRecord> returnedRecords = pending.stream().map(borrowRecords::get).collect(Collectors.toList());
+                List<Long> bookRecordIds = returnedRecords.stream().map(BorrowRecord::getBookRecordId)
+                        .filter(Objects::nonNull).collect(Collectors.toList());
+                if (!bookRecordIds.isEmpty()) {
+                    bookRecordMapper.returnBookRecords(bookRecordIds);
+                }
+
+                // 同一本书可能在一批中归还多册
+                Map<Long, Integer> changes = new HashMap<>();
+                returnedRecords.forEach(borrowRecord -> changes.merge(borrowRecord.getBookId(), 1, Integer::sum));
+                bookMapper.increaseAvailableCopiesBatch(changes);
+
+                changes.keySet().forEach(bookDetailCache::evict);
+                TransactionUtils.afterCommit(() -> returnedRecords.forEach(borrowRecord -> {
+                    if (borrowRecord.getBookRecordId() != null) {
+                        bookCopyPool.release(borrowRecord.getBookId(), borrowRecord.getBookRecordId());
+                    }
+                    loanDueIndex.remove(borrowRecord.getId());
+                }));
+                pending.forEach(recordId -> returned.put(recordId, recordId));
+            }
+
+            return toResults(recordIds, failures, returned, "归还成功");
 
         } catch (Exception e) {
-            log.error("归还图书失败", e);
-            return false;
+            log.error("批量归还图书失败", e);
+            TransactionAspectSupport.currentTransactionStatus().setRollbackOnly();
+            return failAll(recordIds, "归还失败，请重试");
         }
     }
 
@@ -158,7 +369,11 @@ public class BorrowRecordServiceImpl extends ServiceImpl<BorrowRecordMapper, Bor
             borrowRecord.setDueDate(borrowRecord.getDueDate().plusDays(15));
             borrowRecord.setRenewCount(borrowRecord.getRenewCount() + 1);
 
-            return this.updateById(borrowRecord);
+            boolean updated = this.updateById(borrowRecord);
+            if (updated) {
+                TransactionUtils.afterCommit(() -> loanDueIndex.put(recordId, borrowRecord.getDueDate()));
+            }
+            return updated;
 
         } catch (Exception e) {
             log.error("续借图书失败", e);
@@ -169,33 +384,73 @@ public class BorrowRecordServiceImpl extends ServiceImpl<BorrowRecordMapper, Bor
     @Override
     public List<BorrowRecord> getOverdueRecords() {
         QueryWrapper<BorrowRecord> wrapper = new QueryWrapper<>();
-        wrapper.eq("status", 1)
+        wrapper.in("status", 1, 3)
                .lt("due_date", LocalDateTime.now());
         return this.list(wrapper);
     }
 
     @Override
-    @Transactional
-    public boolean updateOverdueRecords() {
+    public int updateOverdueRecords() {
+        // 分批更新，每批单独提交，不在内存中加载逾期记录
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
         try {
-            QueryWrapper<BorrowRecord> wrapper = new QueryWrapper<>();
-            wrapper.eq("status", 1)
-                   .lt("due_date", LocalDateTime.now());
+            int updated;
+            do {
+                updated = borrowRecordMapper.markOverdueBatch(now, FINE_PER_DAY, OVERDUE_BATCH_SIZE);
+                total += updated;
+            } while (updated == OVERDUE_BATCH_SIZE);
+        } catch (Exception e) {
+            log.error("更新逾期记录失败，已更新{}条", total, e);
+            return -1;
+        }
 
-            List<BorrowRecord> overdueRecords = this.list(wrapper);
-            for (BorrowRecord record : overdueRecords) {
-                record.setStatus(3); // 逾期
-                // 计算罚金（每天0.5元）
-                long overdueDays = java.time.Duration.between(record.getDueDate(), LocalDateTime.now()).toDays();
-                BigDecimal fine = BigDecimal.valueOf(overdueDays * 0.5);
-                record.setFineAmount(fine);
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        log.info("更新逾期记录{}条，耗时{}ms，{}条/秒", total, elapsed, total * 1000L / elapsed);
+        return total;
+    }
+
+    @Override
+    public int markOverdueRecords(List<Long> recordIds, LocalDateTime now) {
+        return borrowRecordMapper.markOverdueByIds(recordIds, now, FINE_PER_DAY);
+    }
+
+    private static boolean isBorrowable(Book book) {
+        return Integer.valueOf(1).equals(book.getStatus()) && book.getAvailableCopies() != null && book.getAvailableCopies() > 0;
+    }
+
+    // 按请求顺序生成结果，重复出现的ID只处理第一次
+    private static List<BatchItemResult> toResults(List<Long> ids, Map<Long, String> failures,
+                                                   Map<Long, Long> recordIds, String successMessage) {
+        List<BatchItemResult> results = new ArrayList<>(ids.size());
+        Set<Long> seen = new HashSet<>();
+        for (Long id : ids) {
+            if (!seen.add(id)) {
+                results.add(BatchItemResult.failure(id, "重复的条目"));
+            } else if (recordIds.containsKey(id)) {
+                results.add(BatchItemResult.success(id, recordIds.get(id), successMessage));
+            } else {
+                results.add(BatchItemResult.failure(id, failures.getOrDefault(id, "处理失败")));
             }
+        }
+        return results;
+    }
 
-            return this.updateBatchById(overdueRecords);
+    private List<BatchItemResult> failBatch(List<Long> bookIds, BorrowOutcome outcome) {
+        recordOutcome(outcome, "batch", bookIds.size());
+        return failAll(bookIds, outcome.getMessage());
+    }
 
-        } catch (Exception e) {
-            log.error("更新逾期记录失败", e);
-            return false;
+    // 借阅结果计数，mode 区分单本借阅和批量借阅
+    private void recordOutcome(BorrowOutcome outcome, String mode, int count) {
+        if (count > 0) {
+            meterRegistry.counter("library.borrow.outcomes", "outcome", outcome.name().toLowerCase(), "mode", mode)
+                    .increment(count);
         }
     }
-}
\ No newline at end of file
+
+    private static List<BatchItemResult> failAll(List<Long> ids, String message) {
+        return ids.stream().map(id -> BatchItemResult.failure(id, message)).collect(Collectors.toList());
+    }
+}
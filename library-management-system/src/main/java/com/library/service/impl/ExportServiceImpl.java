@@ -0,0 +1,136 @@
+package com.library.service.impl;
+
+import com.alibaba.fastjson.JSON;
+import com.library.cache.CategoryTreeCache;
+import com.library.mapper.BookMapper;
+import com.library.mapper.BorrowRecordMapper;
+import com.library.mapper.UserMapper;
+import com.library.service.ExportService;
+import com.library.utils.CsvWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.Resource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Slf4j
+@Service
+public class ExportServiceImpl implements ExportService {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final String[] BORROW_RECORD_COLUMNS = {"id", "user_id", "username", "real_name", "student_id",
+            "book_id", "title", "isbn", "book_record_id", "borrow_date", "due_date", "return_date", "renew_count",
+            "status", "fine_amount"};
+
+    private static final String[] BOOK_COLUMNS = {"id", "isbn", "title", "author", "publisher", "publish_date",
+            "category_code", "category_name", "page_count", "language", "price", "total_copies", "available_copies",
+            "status", "create_time"};
+
+    // 不导出密码
+    private static final String[] USER_COLUMNS = {"id", "username", "email", "phone", "real_name", "student_id",
+            "department", "major", "grade", "status", "create_time"};
+
+    @Resource
+    private BorrowRecordMapper borrowRecordMapper;
+
+    @Resource
+    private BookMapper bookMapper;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private CategoryTreeCache categoryTreeCache;
+
+    // 游标只在会话打开期间可读，导出方法需在事务内执行
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBorrowRecords(OutputStream out, String format, Long userId, Integer status,
+                                    LocalDate from, LocalDate to) throws IOException {
+        try (Cursor<Map<String, Object>> cursor = borrowRecordMapper.streamBorrowRecords(userId, status,
+                from != null ? from.atStartOfDay() : null, to != null ? to.plusDays(1).atStartOfDay() : null)) {
+            return write("借阅记录", cursor, BORROW_RECORD_COLUMNS, format, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBooks(OutputStream out, String format, String title, String author, Long categoryId)
+            throws IOException {
+        try (Cursor<Map<String, Object>> cursor = bookMapper.streamBooks(title, author,
+                categoryId != null ? categoryTreeCache.getDescendantIds(categoryId) : null)) {
+            return write("图书", cursor, BOOK_COLUMNS, format, out);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportUsers(OutputStream out, String format, String keyword) throws IOException {
+        try (Cursor<Map<String, Object>> cursor = userMapper.streamUsers(keyword)) {
+            return write("用户", cursor, USER_COLUMNS, format, out);
+        }
+    }
+
+    private long write(String name, Cursor<Map<String, Object>> cursor, String[] columns, String format,
+                       OutputStream out) throws IOException {
+        long start = System.currentTimeMillis();
+        long rows = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        boolean jsonLines = "jsonl".equalsIgnoreCase(format);
+        CsvWriter csvWriter = null;
+        if (!jsonLines) {
+            writer.write('\uFEFF'); // 便于 Excel 识别 UTF-8
+            csvWriter = new CsvWriter(writer);
+            csvWriter.writeRecord((Object[]) columns);
+        }
+
+        Object[] values = new Object[columns.length];
+        for (Map<String, Object> row : cursor) {
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = formatValue(row.get(columns[i]));
+            }
+            if (jsonLines) {
+                Map<String, Object> object = new LinkedHashMap<>(columns.length * 2);
+                for (int i = 0; i < columns.length; i++) {
+                    object.put(columns[i], values[i]);
+                }
+                writer.write(JSON.toJSONString(object));
+                writer.write('\n');
+            } else {
+                csvWriter.writeRecord(values);
+            }
+            rows++;
+        }
+        writer.flush();
+
+        long elapsed = Math.max(System.currentTimeMillis() - start, 1);
+        log.info("导出{}{}条，耗时{}ms，{}条/秒", name, rows, elapsed, rows * 1000L / elapsed);
+        return rows;
+    }
+
+    private static Object formatValue(Object value) {
+        if (value instanceof LocalDateTime) {
+            return DATE_TIME_FORMATTER.format((LocalDateTime) value);
+        }
+        if (value instanceof Timestamp) {
+            return DATE_TIME_FORMATTER.format(((Timestamp) value).toLocalDateTime());
+        }
+        if (value instanceof java.sql.Date) {
+            return ((java.sql.Date) value).toLocalDate().toString();
+        }
+        if (value instanceof LocalDate) {
+            return value.toString();
+        }
+        return value;
+    }
+}
@@ -1,21 +1,32 @@
 package com.library.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.library.common.CursorPage;
+import com.library.common.PageCursor;
+import com.library.dto.UserListItem;
 import com.library.entity.User;
 import com.library.mapper.UserMapper;
+import com.library.security.LoginUser;
+import com.library.security.PasswordHashingService;
+import com.library.security.TokenRevocationList;
 import com.library.service.UserService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.Resource;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService {
 
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Resource
+    private PasswordHashingService passwordHashingService;
+
+    @Resource
+    private TokenRevocationList tokenRevocationList;
 
     @Override
     public User findByUsername(String username) {
@@ -24,38 +35,86 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         return this.getOne(wrapper);
     }
 
+    // 登录只查询认证和登录响应需要的列
     @Override
-    public Page<User> getUserList(Page<User> page, String keyword) {
+    public User findForLogin(String username) {
+        QueryWrapper<User> wrapper = new QueryWrapper<>();
+        wrapper.select("id", "username", "password", "real_name", "avatar", "status")
+               .eq("username", username);
+        return this.getOne(wrapper);
+    }
+
+    @Override
+    public Page<UserListItem> getUserList(Page<UserListItem> page, String keyword) {
+        QueryWrapper<User> wrapper = keywordWrapper(keyword);
+        wrapper.eq("is_deleted", 0);
+        wrapper.orderByDesc("create_time");
+        return baseMapper.selectUserListItems(page, wrapper);
+    }
+
+    @Override
+    public CursorPage<UserListItem> getUserCursorPage(String cursor, int size, boolean withTotal, String keyword) {
+        QueryWrapper<User> wrapper = keywordWrapper(keyword);
+        wrapper.eq("is_deleted", 0);
+        PageCursor pageCursor = PageCursor.decode(cursor);
+        if (pageCursor != null) {
+            wrapper.and(w -> w.lt("create_time", pageCursor.getSortValue())
+                    .or(o -> o.eq("create_time", pageCursor.getSortValue()).lt("id", pageCursor.getId())));
+        }
+        wrapper.orderByDesc("create_time", "id");
+        wrapper.last("LIMIT " + (size + 1));
+        CursorPage<UserListItem> page = CursorPage.of(baseMapper.selectUserListItemList(wrapper), size,
+                UserListItem::getCreateTime, UserListItem::getId);
+        if (withTotal) {
+            page.setTotal(this.count(keywordWrapper(keyword)));
+        }
+        return page;
+    }
+
+    private QueryWrapper<User> keywordWrapper(String keyword) {
         QueryWrapper<User> wrapper = new QueryWrapper<>();
         if (StringUtils.hasText(keyword)) {
             wrapper.and(w -> w.like("username", keyword)
                     .or().like("real_name", keyword)
                     .or().like("student_id", keyword));
         }
-        wrapper.orderByDesc("create_time");
-        return this.page(page, wrapper);
+        return wrapper;
     }
 
+    // 哈希计算在专用线程池中执行，保存在 applicationTaskExecutor 线程中完成，不占用哈希线程
     @Override
-    public boolean register(User user) {
+    public CompletableFuture<Boolean> register(User user) {
         User existingUser = findByUsername(user.getUsername());
         if (existingUser != null) {
-            return false;
+            return CompletableFuture.completedFuture(false);
         }
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
-        user.setStatus(1);
-        return this.save(user);
+        return passwordHashingService.encode(user.getPassword()).thenApply(hash -> {
+            user.setPassword(hash);
+            user.setStatus(1);
+            return this.save(user);
+        });
     }
 
     @Override
-    public boolean updatePassword(Long userId, String oldPassword, String newPassword) {
+    public CompletableFuture<Boolean> updatePassword(Long userId, String oldPassword, String newPassword) {
         User user = this.getById(userId);
-        if (user != null && passwordEncoder.matches(oldPassword, user.getPassword())) {
-            user.setPassword(passwordEncoder.encode(newPassword));
-            return this.updateById(user);
+        if (user == null) {
+            return CompletableFuture.completedFuture(false);
         }
-        return false;
+        String oldHash = user.getPassword();
+        return passwordHashingService.matches(oldPassword, oldHash).thenCompose(matched -> matched
+                ? passwordHashingService.encode(newPassword).thenApply(hash -> updatePasswordHash(userId, oldHash, hash))
+                : CompletableFuture.completedFuture(false));
+    }
+
+    // 以旧哈希为条件更新，期间密码已被修改时不覆盖
+    @Override
+    public boolean updatePasswordHash(Long userId, String oldHash, String newHash) {
+        return this.update(new UpdateWrapper<User>()
+                .set("password", newHash)
+                .eq("id", userId)
+                .eq("password", oldHash));
     }
 
     @Override
@@ -63,6 +122,11 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         User user = new User();
         user.setId(userId);
         user.setStatus(status);
-        return this.updateById(user);
+        boolean updated = this.updateById(user);
+        // 禁用后已签发的token立即失效
+        if (updated && status != null && status != 1) {
+            tokenRevocationList.revokeAll(LoginUser.ROLE_USER, userId);
+        }
+        return updated;
     }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package com.library.task;
+
+import com.library.mapper.AdminMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// 管理员最后登录时间先记在内存中，定时合并为一条多行更新，登录请求不再同步写库
+@Slf4j
+@Component
+public class LastLoginTimeFlusher {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Resource
+    private AdminMapper adminMapper;
+
+    // 管理员ID -> 最近一次登录时间，同一管理员多次登录只保留最新的
+    private final ConcurrentMap<Long, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void record(Long adminId) {
+        pending.put(adminId, LocalDateTime.now());
+    }
+
+    @Scheduled(fixedDelayString = "${library.login.last-login-flush-ms:5000}")
+    public void flush() {
+        Map<Long, LocalDateTime> batch = new HashMap<>();
+        for (Map.Entry<Long, LocalDateTime> entry : pending.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() == BATCH_SIZE) {
+                write(batch);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            write(batch);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private void write(Map<Long, LocalDateTime> batch) {
+        try {
+            adminMapper.updateLastLoginTimes(batch);
+            // 只移除已写入的时间，写入期间的新登录留到下次
+            batch.forEach(pending::remove);
+        } catch (Exception e) {
+            log.error("写入最后登录时间失败，共{}条，等待下次重试", batch.size(), e);
+        }
+    }
+}
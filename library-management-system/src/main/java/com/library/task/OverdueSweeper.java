@@ -0,0 +1,45 @@
+package com.library.task;
+
+import com.library.cache.LoanDueIndex;
+import com.library.service.BorrowRecordService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// 定时把刚到期的借阅记录标记为逾期，每次只处理上次扫描后新到期的记录
+@Slf4j
+@Component
+public class OverdueSweeper {
+
+    private static final int BATCH_SIZE = 500;
+
+    @Resource
+    private LoanDueIndex loanDueIndex;
+
+    @Resource
+    private BorrowRecordService borrowRecordService;
+
+    @Scheduled(fixedDelayString = "${library.overdue.sweep-interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        List<Long> ids;
+        while (!(ids = loanDueIndex.pollDue(now, BATCH_SIZE)).isEmpty()) {
+            try {
+                total += borrowRecordService.markOverdueRecords(ids, now);
+            } catch (Exception e) {
+                log.error("标记逾期记录失败，共{}条，等待下次扫描", ids.size(), e);
+                // 放回索引，下次扫描时重新处理
+                ids.forEach(id -> loanDueIndex.put(id, now));
+                return;
+            }
+        }
+        if (total > 0) {
+            log.info("标记逾期记录{}条", total);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.library.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// 逐条读取 CSV 记录（RFC 4180：逗号分隔，双引号包裹的字段可包含逗号、换行和转义的双引号）
+public class CsvReader implements Closeable {
+
+    private final Reader reader;
+    private final int maxRecordChars;
+    private int lineNumber = 1;
+    private int recordLineNumber;
+    private int recordChars;
+    private boolean truncated;
+    private int pending = -2;
+
+    public CsvReader(Reader reader) {
+        this(reader, Integer.MAX_VALUE);
+    }
+
+    // 单条记录最多保留 maxRecordChars 个字符，超出的部分读取后丢弃
+    public CsvReader(Reader reader, int maxRecordChars) {
+        this.reader = reader;
+        this.maxRecordChars = maxRecordChars;
+    }
+
+    // 读取下一条记录，到达末尾时返回 null；空行被跳过
+    public List<String> readRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean started = false;
+        recordLineNumber = lineNumber;
+        recordChars = 0;
+        truncated = false;
+        int fieldStart = 0;
+
+        int c;
+        while ((c = next()) != -1) {
+            if (c == '\uFEFF' && lineNumber == 1 && !started && field.length() == 0) {
+                continue;
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int following = next();
+                    if (following == '"') {
+                        append(field, '"');
+                    } else {
+                        quoted = false;
+                        pending = following;
+                    }
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    append(field, (char) c);
+                }
+            } else if (c == '"' && recordChars == fieldStart) {
+                quoted = true;
+                started = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = recordChars;
+                started = true;
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r') {
+                    int following = next();
+                    if (following != '\n') {
+                        pending = following;
+                    }
+                }
+                lineNumber++;
+                if (started || field.length() > 0) {
+                    fields.add(field.toString());
+                    return fields;
+                }
+                recordLineNumber = lineNumber;
+            } else {
+                append(field, (char) c);
+                started = true;
+            }
+        }
+
+        if (started || field.length() > 0) {
+            fields.add(field.toString());
+            return fields;
+        }
+        return null;
+    }
+
+    // 最近一条记录起始的行号（从1开始）
+    public int getRecordLineNumber() {
+        return recordLineNumber;
+    }
+
+    // 最近一条记录是否超过长度限制，超过时各字段的内容不完整
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void append(StringBuilder field, char c) {
+        if (recordChars++ < maxRecordChars) {
+            field.append(c);
+        } else {
+            truncated = true;
+        }
+    }
+
+    private int next() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
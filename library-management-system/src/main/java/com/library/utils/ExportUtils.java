@@ -0,0 +1,34 @@
+package com.library.utils;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.zip.GZIPOutputStream;
+
+// 导出接口的响应头设置，文件名形如 borrow-records-20240101.csv(.gz)
+public final class ExportUtils {
+
+    private ExportUtils() {
+    }
+
+    public static boolean isSupportedFormat(String format) {
+        return "csv".equalsIgnoreCase(format) || "jsonl".equalsIgnoreCase(format);
+    }
+
+    public static OutputStream prepare(HttpServletResponse response, String name, String format, boolean gzip)
+            throws IOException {
+        String extension = format.toLowerCase();
+        String filename = name + "-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "." + extension;
+        if (gzip) {
+            response.setContentType("application/gzip");
+            filename += ".gz";
+        } else {
+            response.setContentType("csv".equals(extension) ? "text/csv;charset=utf-8" : "application/x-ndjson;charset=utf-8");
+        }
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + filename + "\"");
+        OutputStream out = response.getOutputStream();
+        return gzip ? new GZIPOutputStream(out, 8192) : out;
+    }
+}
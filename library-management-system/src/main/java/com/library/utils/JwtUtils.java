@@ -1,13 +1,19 @@
 package com.library.utils;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 @Component
@@ -16,33 +22,96 @@ public class JwtUtils {
     @Value("${jwt.secret}")
     private String secret;
 
+    // 访问token有效期
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+    @Value("${jwt.refresh-expiration:604800000}")
+    private Long refreshExpiration;
+
+    @Value("${jwt.cache-size:10000}")
+    private long cacheSize;
+
+    private SecretKey signingKey;
+
+    private JwtParser jwtParser;
+
+    // 已验证签名的token缓存，条目在token过期时失效
+    private Cache<String, Claims> claimsCache;
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        jwtParser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        claimsCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String token, Claims claims, long currentTime) {
+                        long millis = claims.getExpiration().getTime() - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(millis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String token, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public static final String CLAIM_USER_ID = "uid";
+
+    public static final String CLAIM_TYPE = "typ";
+
+    public static final String TYPE_ACCESS = "access";
+
+    public static final String TYPE_REFRESH = "refresh";
+
+    public String generateToken(Long userId, String username, String role) {
+        return buildToken(userId, username, role, TYPE_ACCESS, expiration);
+    }
+
+    // 刷新token只用于换取新的访问token，不能直接访问接口
+    public String generateRefreshToken(Long userId, String username, String role) {
+        return buildToken(userId, username, role, TYPE_REFRESH, refreshExpiration);
     }
 
-    public String generateToken(String username, String role) {
+    private String buildToken(Long userId, String username, String role, String type, long lifetime) {
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration);
+        Date expiryDate = new Date(now.getTime() + lifetime);
 
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(username)
                 .claim("role", role)
+                .claim(CLAIM_USER_ID, userId)
+                .claim(CLAIM_TYPE, type)
                 .setIssuedAt(now)
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // 解析并验证token，签名无效或已过期时返回 null
     public Claims getClaimsFromToken(String token) {
+        Claims cached = claimsCache.getIfPresent(token);
+        if (cached != null) {
+            return cached;
+        }
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = jwtParser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() != null) {
+                claimsCache.put(token, claims);
+            }
+            return claims;
         } catch (Exception e) {
             log.error("JWT token解析失败: {}", e.getMessage());
             return null;
@@ -59,18 +128,44 @@ public class JwtUtils {
         return claims != null ? claims.get("role", String.class) : null;
     }
 
+    public Long getUserIdFromClaims(Claims claims) {
+        return claims.get(CLAIM_USER_ID, Long.class);
+    }
+
+    // 旧token不含用户ID，查到后把补全的副本放回缓存，同一token的后续请求不再查询
+    public void cacheUserId(String token, Claims claims, Long userId) {
+        if (claims.getExpiration() == null) {
+            return;
+        }
+        Claims resolved = Jwts.claims(claims);
+        resolved.put(CLAIM_USER_ID, userId);
+        claimsCache.put(token, resolved);
+    }
+
+    // 不含类型的旧token按访问token处理
+    public boolean isAccessToken(Claims claims) {
+        String type = claims.get(CLAIM_TYPE, String.class);
+        return type == null || TYPE_ACCESS.equals(type);
+    }
+
+    public boolean isRefreshToken(Claims claims) {
+        return TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class));
+    }
+
+    public long getRefreshExpiration() {
+        return refreshExpiration;
+    }
+
     public boolean isTokenExpired(String token) {
         Claims claims = getClaimsFromToken(token);
-        return claims != null && claims.getExpiration().before(new Date());
+        return claims == null || claims.getExpiration().before(new Date());
     }
 
     public boolean validateToken(String token) {
-        try {
-            getClaimsFromToken(token);
-            return true;
-        } catch (Exception e) {
-            log.error("JWT token验证失败: {}", e.getMessage());
-            return false;
-        }
+        return getClaimsFromToken(token) != null;
+    }
+
+    public long getCachedTokenCount() {
+        return claimsCache.estimatedSize();
     }
-}
\ No newline at end of file
+}
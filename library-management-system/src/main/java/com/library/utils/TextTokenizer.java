@@ -0,0 +1,72 @@
+package com.library.utils;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+// 检索用分词：连续的字母数字作为一个词（忽略中间的连字符），中日韩文字按二元组切分
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    public static Set<String> tokenize(String text, boolean withUnigrams) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        String lower = text.toLowerCase();
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (isCjk(c)) {
+                flushWord(word, tokens);
+                cjk.append(c);
+            } else if (Character.isLetterOrDigit(c)) {
+                flushCjk(cjk, tokens, withUnigrams);
+                word.append(c);
+            } else if (c == '-' && word.length() > 0) {
+                // ISBN 等编号中的连字符不拆分
+                continue;
+            } else {
+                flushWord(word, tokens);
+                flushCjk(cjk, tokens, withUnigrams);
+            }
+        }
+        flushWord(word, tokens);
+        flushCjk(cjk, tokens, withUnigrams);
+        return tokens;
+    }
+
+    public static boolean isCjk(char c) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(c);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private static void flushWord(StringBuilder word, Set<String> tokens) {
+        if (word.length() > 0) {
+            tokens.add(word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(StringBuilder cjk, Set<String> tokens, boolean withUnigrams) {
+        int length = cjk.length();
+        if (length == 0) {
+            return;
+        }
+        if (length == 1 || withUnigrams) {
+            for (int i = 0; i < length; i++) {
+                tokens.add(String.valueOf(cjk.charAt(i)));
+            }
+        }
+        for (int i = 0; i + 1 < length; i++) {
+            tokens.add(cjk.substring(i, i + 2));
+        }
+        cjk.setLength(0);
+    }
+}
@@ -0,0 +1,47 @@
+package com.library.cache;
+
+import com.library.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookSearchIndexTest {
+
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookSearchIndex();
+        for (long id = 1; id <= 5; id++) {
+            Book book = new Book();
+            book.setId(id);
+            book.setTitle("数据系统" + id);
+            book.setAuthor("作者" + id);
+            book.setStatus(1);
+            index.update(book);
+        }
+    }
+
+    @Test
+    void pagesThroughMatches() {
+        BookSearchIndex.SearchResult first = index.search("数据", 0, 2);
+        BookSearchIndex.SearchResult second = index.search("数据", 2, 2);
+
+        assertEquals(5, first.getTotal());
+        assertEquals(Arrays.asList(5L, 4L), first.getIds());
+        assertEquals(Arrays.asList(3L, 2L), second.getIds());
+    }
+
+    // 偏移量远大于命中数时不会按偏移量分配堆空间
+    @Test
+    void hugeOffsetReturnsEmptyPage() {
+        BookSearchIndex.SearchResult result = index.search("数据", 9_999_999_990L, 10);
+
+        assertEquals(5, result.getTotal());
+        assertEquals(Collections.emptyList(), result.getIds());
+    }
+}
@@ -0,0 +1,108 @@
+package com.library.cache;
+
+import com.library.entity.Book;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookSuggestTrieTest {
+
+    private BookSuggestTrie trie;
+
+    private BookPopularityTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        trie = new BookSuggestTrie();
+        tracker = new BookPopularityTracker();
+        ReflectionTestUtils.setField(trie, "bookPopularityTracker", tracker);
+    }
+
+    @Test
+    void hyphenatedIsbnPrefixMatches() {
+        trie.update(book(1, "数据系统", "978-7-111-54321-0"));
+
+        assertEquals(ids(1), suggest("978-7-1"));
+        assertEquals(ids(1), suggest("97871"));
+    }
+
+    // 候选已满时，热度相同的新书排在旧书之前，不必等到重建
+    @Test
+    void newBookAppearsWhenTopIsFull() {
+        for (long id = 1; id <= BookSuggestTrie.TOP_K; id++) {
+            trie.update(book(id, "数据系统" + id, null));
+        }
+        tracker.recordBorrow(1L);
+        long added = BookSuggestTrie.TOP_K + 1;
+        trie.update(book(added, "数据系统" + added, null));
+
+        List<Long> suggested = suggest("数据");
+        assertEquals(BookSuggestTrie.TOP_K, suggested.size());
+        assertEquals(1L, suggested.get(0));
+        assertEquals(added, suggested.get(1));
+        assertFalse(suggested.contains(2L));
+    }
+
+    // 删除候选中的图书后立即从子节点候选中补足
+    @Test
+    void removalRefillsTop() {
+        int books = BookSuggestTrie.TOP_K + 2;
+        for (long id = 1; id <= books; id++) {
+            trie.update(book(id, "数据系统" + id, null));
+        }
+        assertFalse(suggest("数").contains(2L));
+
+        trie.remove((long) books);
+        trie.remove((long) books - 1);
+
+        List<Long> suggested = suggest("数");
+        assertEquals(BookSuggestTrie.TOP_K, suggested.size());
+        assertTrue(suggested.contains(1L));
+        assertTrue(suggested.contains(2L));
+        assertFalse(suggested.contains((long) books));
+    }
+
+    // 单子节点链合并为一条边，删除后拆开的边重新合并
+    @Test
+    void compressesSingleChildChains() {
+        trie.update(book(1, "abcdef", null));
+        assertEquals(2, trie.getNodeCount());
+
+        trie.update(book(2, "abcxyz", null));
+        assertEquals(4, trie.getNodeCount());
+        assertEquals(ids(2, 1), suggest("ab"));
+        assertEquals(ids(2), suggest("abcx"));
+
+        trie.remove(2L);
+        assertEquals(2, trie.getNodeCount());
+        assertEquals(ids(1), suggest("abcd"));
+        assertEquals(ids(), suggest("abcx"));
+    }
+
+    private List<Long> suggest(String prefix) {
+        return trie.suggest(prefix, BookSuggestTrie.TOP_K).stream()
+                .map(BookSuggestTrie.Suggestion::getId)
+                .collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(long... ids) {
+        return Arrays.stream(ids).boxed().collect(Collectors.toList());
+    }
+
+    private static Book book(long id, String title, String isbn) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setIsbn(isbn);
+        book.setStatus(1);
+        return book;
+    }
+}
@@ -0,0 +1,41 @@
+package com.library.controller;
+
+import com.library.common.CursorPage;
+import com.library.common.PageLimits;
+import com.library.common.Result;
+import com.library.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 图书列表和搜索是公开接口，超出范围的每页数量直接返回400，不进入查询
+class BookControllerPagingTest extends IntegrationTest {
+
+    @Resource
+    private BookController bookController;
+
+    @Test
+    void rejectsSizeOutsideRange() {
+        for (int size : new int[]{0, -1, PageLimits.MAX_PAGE_SIZE + 1}) {
+            assertEquals(400, bookController.getBookList(1, size, "", false, null, null, null).getCode());
+            assertEquals(400, bookController.getBookList(1, size, null, false, null, null, null).getCode());
+            assertEquals(400, bookController.searchBooks(1, size, "测试").getCode());
+        }
+    }
+
+    @Test
+    void cursorPageStopsAtSize() {
+        insertBook(1);
+        insertBook(1);
+
+        Result<?> result = bookController.getBookList(1, 1, "", false, null, null, null);
+
+        assertEquals(200, result.getCode());
+        CursorPage<?> page = (CursorPage<?>) result.getData();
+        assertEquals(1, page.getRecords().size());
+        assertTrue(page.getHasMore());
+    }
+}
@@ -0,0 +1,80 @@
+package com.library.interceptor;
+
+import com.library.mapper.BookMapper;
+import com.library.support.IntegrationTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 语句数按映射路径汇总；未映射的请求归入同一个接口，汇总表不随请求路径增长
+class StatementBudgetFilterTest extends IntegrationTest {
+
+    @Resource
+    private StatementReport statementReport;
+
+    @Resource
+    private BookMapper bookMapper;
+
+    private StatementBudgetFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        statementReport.reset();
+        filter = new StatementBudgetFilter(statementReport, 10);
+    }
+
+    @Test
+    void mappedRequestsAreGroupedByPattern() throws Exception {
+        request("/api/books/1", "/api/books/{id}", 1);
+        request("/api/books/2", "/api/books/{id}", 3);
+
+        assertEquals(2.0, statementReport.getAverageStatements("GET /api/books/{id}"));
+        assertEquals(1, endpoints().size());
+    }
+
+    @Test
+    void unmappedRequestsShareOneBucket() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            request("/no-such-path/" + i, null, 1);
+        }
+
+        assertEquals(1.0, statementReport.getAverageStatements(StatementBudgetFilter.UNMAPPED));
+        assertEquals(1, endpoints().size());
+    }
+
+    @Test
+    void resetClearsEndpoints() throws Exception {
+        request("/api/books/0", "/api/books/{id}", 1);
+
+        statementReport.reset();
+
+        assertEquals(0.0, statementReport.getAverageStatements("GET /api/books/{id}"));
+        assertEquals(0, endpoints().size());
+    }
+
+    // 处理请求时执行 statements 条SQL；pattern 不为空时与 DispatcherServlet 一样写入映射路径
+    private void request(String uri, String pattern, int statements) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            for (int i = 0; i < statements; i++) {
+                bookMapper.selectById(0L);
+            }
+            if (pattern != null) {
+                req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, pattern);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> endpoints() {
+        return (List<Map<String, Object>>) statementReport.report().get("endpoints");
+    }
+}
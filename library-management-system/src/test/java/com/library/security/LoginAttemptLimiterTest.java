@@ -0,0 +1,56 @@
+package com.library.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginAttemptLimiterTest {
+
+    private static final String IP = "10.0.0.1";
+
+    private LoginAttemptLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new LoginAttemptLimiter();
+        ReflectionTestUtils.setField(limiter, "maxAttemptsPerUsername", 3);
+        ReflectionTestUtils.setField(limiter, "maxAttemptsPerIp", 5);
+        ReflectionTestUtils.setField(limiter, "windowMillis", 60_000L);
+        limiter.init();
+    }
+
+    // 同一出口IP后的大量正常登录不会触发IP限制
+    @Test
+    void successfulLoginsDoNotCountAgainstIp() {
+        for (int i = 0; i < 50; i++) {
+            String username = "reader" + i;
+            assertTrue(limiter.tryAcquire(username, IP));
+            limiter.reset(username);
+        }
+    }
+
+    @Test
+    void failedLoginsBlockIpBeforeHashing() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(limiter.tryAcquire("reader" + i, IP));
+            limiter.recordFailure(IP);
+        }
+
+        assertFalse(limiter.tryAcquire("someone-else", IP));
+        assertTrue(limiter.tryAcquire("someone-else", "10.0.0.2"));
+    }
+
+    @Test
+    void usernameLimitCountsAttemptsUntilSuccess() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("reader", "10.0.1." + i));
+        }
+        assertFalse(limiter.tryAcquire("reader", "10.0.2.1"));
+
+        limiter.reset("reader");
+        assertTrue(limiter.tryAcquire("reader", "10.0.2.1"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.library.security;
+
+import com.library.controller.UserController;
+import com.library.interceptor.StatementBudgetInterceptor;
+import com.library.support.IntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.annotation.Resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// @PreAuthorize 只读取认证主体中的角色和用户ID：被拒绝的调用不执行任何SQL，
+// 管理员放行时也只执行方法体本身的一条 UPDATE
+class MethodSecurityTest extends IntegrationTest {
+
+    @Resource
+    private UserController userController;
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readerIsDeniedWithoutStatements() {
+        long readerId = insertUser();
+        long otherReaderId = insertUser();
+        login(new LoginUser(readerId, "reader" + readerId, LoginUser.ROLE_USER));
+
+        assertDeniedWithoutStatements(() -> userController.updatePassword(otherReaderId, "old", "new"));
+        assertDeniedWithoutStatements(() -> userController.updateUserStatus(otherReaderId, 0));
+    }
+
+    @Test
+    void unknownRoleHasNoAuthorities() {
+        long readerId = insertUser();
+        LoginUser unknown = new LoginUser(readerId, "unknown", "auditor");
+        assertTrue(unknown.getAuthorities().isEmpty());
+        login(unknown);
+
+        assertDeniedWithoutStatements(() -> userController.updateUserStatus(readerId, 0));
+    }
+
+    @Test
+    void adminRunsOnlyTheUpdate() {
+        long readerId = insertUser();
+        login(new LoginUser(1L, "admin", "admin"));
+
+        StatementBudgetInterceptor.RequestStatements statements = StatementBudgetInterceptor.begin("admin");
+        try {
+            assertEquals(200, userController.updateUserStatus(readerId, 1).getCode());
+            assertEquals(1, statements.getTotal(), () -> statements.getCounts().toString());
+        } finally {
+            StatementBudgetInterceptor.end();
+        }
+    }
+
+    private static void login(LoginUser loginUser) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(loginUser, null, loginUser.getAuthorities()));
+    }
+
+    private static void assertDeniedWithoutStatements(Executable call) {
+        StatementBudgetInterceptor.RequestStatements statements = StatementBudgetInterceptor.begin("denied");
+        try {
+            assertThrows(AccessDeniedException.class, call);
+            assertEquals(0, statements.getTotal(), () -> statements.getCounts().toString());
+        } finally {
+            StatementBudgetInterceptor.end();
+        }
+    }
+}
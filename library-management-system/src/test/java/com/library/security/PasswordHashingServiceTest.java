@@ -0,0 +1,33 @@
+package com.library.security;
+
+import com.library.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 哈希之后的阶段（注册、改密码、登录时的写库）不在哈希线程上执行
+class PasswordHashingServiceTest extends IntegrationTest {
+
+    @Resource
+    private PasswordHashingService passwordHashingService;
+
+    @Test
+    void dependentStagesLeaveHashingPool() throws Exception {
+        String encodeThread = passwordHashingService.encode("secret")
+                .thenApply(hash -> Thread.currentThread().getName())
+                .get(30, TimeUnit.SECONDS);
+        String matchThread = passwordHashingService.matches("secret", passwordHashingService.encode("secret").get())
+                .thenApply(matched -> {
+                    assertTrue(matched);
+                    return Thread.currentThread().getName();
+                })
+                .get(30, TimeUnit.SECONDS);
+
+        assertFalse(encodeThread.startsWith("password-hashing-"), encodeThread);
+        assertFalse(matchThread.startsWith("password-hashing-"), matchThread);
+    }
+}
@@ -0,0 +1,144 @@
+package com.library.security;
+
+import com.library.controller.AuthController;
+import com.library.support.IntegrationTest;
+import com.library.utils.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Resource;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// 退出登录对没有token ID的旧token同样生效：按账户吊销，无法确定账户时返回失败；
+// 其他实例写入的吊销记录即使晚于更大的ID提交，也会在之后的同步中加载
+class TokenRevocationListTest extends IntegrationTest {
+
+    @Resource
+    private TokenRevocationList tokenRevocationList;
+
+    @Resource
+    private JwtUtils jwtUtils;
+
+    @Resource
+    private AuthController authController;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Test
+    void tokenWithIdIsRevokedOnce() {
+        Claims claims = jwtUtils.getClaimsFromToken(jwtUtils.generateToken(insertUser(), "reader", LoginUser.ROLE_USER));
+
+        assertTrue(tokenRevocationList.revoke(claims));
+        assertFalse(tokenRevocationList.revoke(claims));
+        assertTrue(tokenRevocationList.isRevoked(claims));
+    }
+
+    @Test
+    void legacyTokenRevokesItsAccount() {
+        long userId = insertUser();
+        Claims claims = jwtUtils.getClaimsFromToken(legacyToken(userId));
+
+        assertTrue(tokenRevocationList.revoke(claims));
+        assertTrue(tokenRevocationList.isRevoked(claims));
+    }
+
+    @Test
+    void legacyTokenWithoutAccountIsNotReportedAsRevoked() {
+        Claims claims = jwtUtils.getClaimsFromToken(legacyToken(null));
+
+        assertFalse(tokenRevocationList.revoke(claims));
+        assertFalse(tokenRevocationList.isRevoked(claims));
+    }
+
+    @Test
+    void logoutFailsWhenTokenCannotBeRevoked() {
+        assertEquals(200, authController.logout(null, bearer(legacyToken(insertUser()))).getCode());
+        assertEquals(500, authController.logout(null, bearer(legacyToken(null))).getCode());
+    }
+
+    @Test
+    void repeatedLogoutSucceeds() {
+        MockHttpServletRequest request = bearer(jwtUtils.generateToken(insertUser(), "reader", LoginUser.ROLE_USER));
+
+        assertEquals(200, authController.logout(null, request).getCode());
+        assertEquals(200, authController.logout(null, request).getCode());
+    }
+
+    @Test
+    void syncLoadsRevocationCommittedAfterHigherId() throws Exception {
+        Claims late = jwtUtils.getClaimsFromToken(jwtUtils.generateToken(insertUser(), "reader", LoginUser.ROLE_USER));
+        Claims early = jwtUtils.getClaimsFromToken(jwtUtils.generateToken(insertUser(), "reader", LoginUser.ROLE_USER));
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // 先插入的记录分配到较小的ID，但最后才提交
+            Future<?> slow = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                insertRevocation(late.getId());
+                inserted.countDown();
+                awaitQuietly(commit);
+            }));
+            assertTrue(inserted.await(10, TimeUnit.SECONDS));
+            insertRevocation(early.getId());
+            tokenRevocationList.sync();
+            assertTrue(tokenRevocationList.isRevoked(early));
+            assertFalse(tokenRevocationList.isRevoked(late));
+
+            commit.countDown();
+            slow.get(10, TimeUnit.SECONDS);
+            tokenRevocationList.sync();
+            assertTrue(tokenRevocationList.isRevoked(late));
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    // 模拟其他实例写入的吊销记录
+    private void insertRevocation(String tokenId) {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO token_revocations (token_id, revoked_at, expires_at) VALUES (?, ?, ?)",
+                tokenId, now, now.plusHours(1));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 加入token ID之前签发的token，签发时间早于吊销时间
+    private String legacyToken(Long userId) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject("reader")
+                .claim("role", LoginUser.ROLE_USER)
+                .claim(JwtUtils.CLAIM_USER_ID, userId)
+                .setIssuedAt(new Date(now - 60000))
+                .setExpiration(new Date(now + 60000))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    private static MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/logout");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
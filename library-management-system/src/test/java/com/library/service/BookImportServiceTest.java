@@ -0,0 +1,99 @@
+package com.library.service;
+
+import com.library.dto.BookImportReport;
+import com.library.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Resource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 图书导入：超长的行记为错误而不读入内存，同一图书的并发导入生成的条码不重复
+class BookImportServiceTest extends IntegrationTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    // 超过行长度限制的字段内容
+    private static final String OVERSIZED = String.join("", Collections.nCopies(70 * 1024, "x"));
+
+    @Resource
+    private BookImportService bookImportService;
+
+    @Test
+    void oversizedCsvRowIsReportedAsError() {
+        String first = nextIsbn();
+        String second = nextIsbn();
+        String csv = "isbn,title,author,category_code,description\n" +
+                first + ",导入测试,作者,LITERATURE,\"" + OVERSIZED + "\"\n" +
+                second + ",导入测试,作者,LITERATURE,简介\n";
+
+        BookImportReport report = importBooks(csv, "csv");
+
+        assertEquals(2, report.getTotalRows());
+        assertEquals(1, report.getImportedRows());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertEquals(0, count("SELECT COUNT(*) FROM books WHERE isbn = ?", first));
+        assertEquals(1, count("SELECT COUNT(*) FROM books WHERE isbn = ?", second));
+    }
+
+    @Test
+    void oversizedJsonLineIsReportedAsError() {
+        String first = nextIsbn();
+        String second = nextIsbn();
+        String jsonl = "{\"isbn\":\"" + first + "\",\"title\":\"导入测试\",\"author\":\"作者\",\"categoryCode\":\"LITERATURE\"," +
+                "\"description\":\"" + OVERSIZED + "\"}\n" +
+                "{\"isbn\":\"" + second + "\",\"title\":\"导入测试\",\"author\":\"作者\",\"categoryCode\":\"LITERATURE\"}\n";
+
+        BookImportReport report = importBooks(jsonl, "jsonl");
+
+        assertEquals(2, report.getTotalRows());
+        assertEquals(1, report.getImportedRows());
+        assertEquals(1, report.getErrors().get(0).getLine());
+        assertEquals(1, count("SELECT COUNT(*) FROM books WHERE isbn = ?", second));
+    }
+
+    // 同一图书的并发导入依次生成条码序号，副本全部写入且条码不重复
+    @Test
+    void concurrentImportsOfOneBookGetDistinctBarcodes() throws Exception {
+        String isbn = nextIsbn();
+        String csv = "isbn,title,author,category_code,copies\n" + isbn + ",导入测试,作者,LITERATURE,5\n";
+        int imports = 6;
+        ExecutorService executor = Executors.newFixedThreadPool(imports);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<BookImportReport>> futures = new ArrayList<>();
+            for (int i = 0; i < imports; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return importBooks(csv, "csv");
+                }));
+            }
+            start.countDown();
+            for (Future<BookImportReport> future : futures) {
+                assertEquals(1, future.get(60, TimeUnit.SECONDS).getImportedRows());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        String copies = "FROM book_records r JOIN books b ON b.id = r.book_id WHERE b.isbn = ?";
+        assertEquals(imports * 5, count("SELECT COUNT(*) " + copies, isbn));
+        assertEquals(imports * 5, count("SELECT COUNT(DISTINCT r.barcode) " + copies, isbn));
+        assertEquals(imports * 5, count("SELECT total_copies FROM books WHERE isbn = ?", isbn));
+    }
+
+    private BookImportReport importBooks(String content, String format) {
+        return bookImportService.importBooks(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+    }
+
+    private static String nextIsbn() {
+        return String.format("979-1-%08d", SEQUENCE.incrementAndGet());
+    }
+}
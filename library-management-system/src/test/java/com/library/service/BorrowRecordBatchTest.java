@@ -0,0 +1,73 @@
+package com.library.service;
+
+import com.library.common.BorrowOutcome;
+import com.library.dto.BatchItemResult;
+import com.library.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 批量借阅每本书只占用一个副本，未借成的图书不占用副本
+class BorrowRecordBatchTest extends IntegrationTest {
+
+    private static final int COPIES = 3;
+
+    @Resource
+    private BorrowRecordService borrowRecordService;
+
+    @Test
+    void batchClaimsOneCopyPerBook() {
+        long userId = insertUser();
+        long first = insertBook(COPIES);
+        long second = insertBook(COPIES);
+
+        List<BatchItemResult> results = borrowRecordService.borrowBooks(userId, Arrays.asList(first, second), null);
+
+        assertEquals(2, results.stream().filter(BatchItemResult::getSuccess).count());
+        assertAvailable(first, COPIES - 1);
+        assertAvailable(second, COPIES - 1);
+    }
+
+    @Test
+    void alreadyBorrowedBookKeepsItsCopies() {
+        long userId = insertUser();
+        long held = insertBook(COPIES);
+        long other = insertBook(COPIES);
+        assertEquals(BorrowOutcome.SUCCESS, borrowRecordService.borrowBook(userId, held));
+
+        List<BatchItemResult> results = borrowRecordService.borrowBooks(userId, Arrays.asList(held, other), null);
+
+        assertEquals(1, results.stream().filter(BatchItemResult::getSuccess).count());
+        assertAvailable(held, COPIES - 1);
+        assertAvailable(other, COPIES - 1);
+    }
+
+    // 副本池加载时还没有副本，重新加载前新增的副本由 LIMIT 1 条件更新占用
+    @Test
+    void claimsFromDatabaseWhenPoolIsEmpty() {
+        long bookId = insertBook(0);
+        assertEquals(BorrowOutcome.NO_AVAILABLE_COPY, borrowRecordService.borrowBook(insertUser(), bookId));
+        jdbcTemplate.update("UPDATE books SET total_copies = ?, available_copies = ? WHERE id = ?", COPIES, COPIES, bookId);
+        for (int copy = 0; copy < COPIES; copy++) {
+            jdbcTemplate.update("INSERT INTO book_records (book_id, barcode, location, status) VALUES (?, ?, ?, 1)",
+                    bookId, "TBLATE" + bookId + "-" + copy, "测试书架");
+        }
+
+        List<BatchItemResult> results = borrowRecordService.borrowBooks(insertUser(), Collections.singletonList(bookId), null);
+
+        assertEquals(1, results.stream().filter(BatchItemResult::getSuccess).count());
+        assertAvailable(bookId, COPIES - 1);
+        assertEquals(1, count("SELECT COUNT(*) FROM borrow_records br JOIN book_records r ON r.id = br.book_record_id " +
+                "WHERE br.book_id = ? AND r.book_id = ? AND r.status = 0", bookId, bookId));
+    }
+
+    private void assertAvailable(long bookId, int available) {
+        assertEquals(available, count("SELECT available_copies FROM books WHERE id = ?", bookId));
+        assertEquals(available, count("SELECT COUNT(*) FROM book_records WHERE book_id = ? AND status = 1", bookId));
+    }
+}
@@ -0,0 +1,45 @@
+package com.library.service;
+
+import com.library.common.BorrowOutcome;
+import com.library.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Resource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 副本池为空时单本借阅回退到 LIMIT 1 条件更新，借阅记录关联的是 LAST_INSERT_ID 返回的那个副本
+class BorrowRecordCopyPoolTest extends IntegrationTest {
+
+    private static final int COPIES = 2;
+
+    @Resource
+    private BorrowRecordService borrowRecordService;
+
+    @Test
+    void claimsFromDatabaseWhenPoolIsEmpty() {
+        // 副本池加载时还没有副本，重新加载间隔内新增的副本只能由条件更新占用
+        long bookId = insertBook(0);
+        assertEquals(BorrowOutcome.NO_AVAILABLE_COPY, borrowRecordService.borrowBook(insertUser(), bookId));
+        jdbcTemplate.update("UPDATE books SET total_copies = ?, available_copies = ? WHERE id = ?", COPIES, COPIES, bookId);
+        for (int copy = 0; copy < COPIES; copy++) {
+            jdbcTemplate.update("INSERT INTO book_records (book_id, barcode, location, status) VALUES (?, ?, ?, 1)",
+                    bookId, "TBPOOL" + bookId + "-" + copy, "测试书架");
+        }
+
+        long userId = insertUser();
+        assertEquals(BorrowOutcome.SUCCESS, borrowRecordService.borrowBook(userId, bookId));
+
+        Long recordId = jdbcTemplate.queryForObject(
+                "SELECT id FROM borrow_records WHERE user_id = ? AND book_id = ?", Long.class, userId, bookId);
+        assertEquals(1, count("SELECT COUNT(*) FROM borrow_records br JOIN book_records r ON r.id = br.book_record_id " +
+                "WHERE br.id = ? AND r.book_id = ? AND r.status = 0", recordId, bookId));
+        assertEquals(COPIES - 1, count("SELECT available_copies FROM books WHERE id = ?", bookId));
+        assertEquals(COPIES - 1, count("SELECT COUNT(*) FROM book_records WHERE book_id = ? AND status = 1", bookId));
+
+        // 归还后副本恢复可借
+        assertTrue(borrowRecordService.returnBook(userId, recordId));
+        assertEquals(COPIES, count("SELECT COUNT(*) FROM book_records WHERE book_id = ? AND status = 1", bookId));
+    }
+}
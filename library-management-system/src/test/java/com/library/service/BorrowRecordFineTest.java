@@ -0,0 +1,67 @@
+package com.library.service;
+
+import com.library.common.BorrowOutcome;
+import com.library.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Resource;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 罚金在归还时按应还日期计算：巡检在到期后不久标记逾期时罚金为0，归还时应按实际逾期天数计费
+class BorrowRecordFineTest extends IntegrationTest {
+
+    @Resource
+    private BorrowRecordService borrowRecordService;
+
+    @Test
+    void returnChargesDaysOverdue() {
+        long userId = insertUser();
+        long recordId = borrowOverdue(userId, 3);
+
+        assertTrue(borrowRecordService.returnBook(userId, recordId));
+
+        assertEquals(new BigDecimal("1.50"), fineOf(recordId));
+    }
+
+    @Test
+    void batchReturnChargesDaysOverdue() {
+        long recordId = borrowOverdue(insertUser(), 5);
+
+        borrowRecordService.returnBooks(Collections.singletonList(recordId));
+
+        assertEquals(new BigDecimal("2.50"), fineOf(recordId));
+    }
+
+    @Test
+    void returnBeforeDueDateIsFree() {
+        long userId = insertUser();
+        assertEquals(BorrowOutcome.SUCCESS, borrowRecordService.borrowBook(userId, insertBook(1)));
+        long recordId = recordOf(userId);
+
+        assertTrue(borrowRecordService.returnBook(userId, recordId));
+
+        assertEquals(new BigDecimal("0.00"), fineOf(recordId));
+    }
+
+    // 借阅后把应还日期改到若干天前，并保持巡检标记逾期时的状态：status = 3、罚金为0
+    private long borrowOverdue(long userId, int days) {
+        assertEquals(BorrowOutcome.SUCCESS, borrowRecordService.borrowBook(userId, insertBook(1)));
+        long recordId = recordOf(userId);
+        jdbcTemplate.update("UPDATE borrow_records SET due_date = ?, status = 3, fine_amount = 0 WHERE id = ?",
+                LocalDateTime.now().minusDays(days).minusHours(1), recordId);
+        return recordId;
+    }
+
+    private long recordOf(long userId) {
+        return jdbcTemplate.queryForObject("SELECT id FROM borrow_records WHERE user_id = ?", Long.class, userId);
+    }
+
+    private BigDecimal fineOf(long recordId) {
+        return jdbcTemplate.queryForObject("SELECT fine_amount FROM borrow_records WHERE id = ?", BigDecimal.class, recordId);
+    }
+}
@@ -0,0 +1,43 @@
+package com.library.service;
+
+import com.library.common.BorrowOutcome;
+import com.library.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Resource;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// 归还早期未关联副本的借阅记录：只恢复可借数量，不更新副本，也不向副本池放入空ID
+class BorrowRecordReturnTest extends IntegrationTest {
+
+    @Resource
+    private BorrowRecordService borrowRecordService;
+
+    @Test
+    void returnsLoanWithoutCopy() {
+        // 早期的库中 book_record_id 允许为空
+        jdbcTemplate.execute("ALTER TABLE borrow_records ALTER COLUMN book_record_id SET NULL");
+        long bookId = insertBook(2);
+        // 先借出一册，加载该图书的副本池
+        assertEquals(BorrowOutcome.SUCCESS, borrowRecordService.borrowBook(insertUser(), bookId));
+
+        long userId = insertUser();
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO borrow_records (user_id, book_id, borrow_date, due_date, status) VALUES (?, ?, ?, ?, 1)",
+                userId, bookId, now, now.plusDays(30));
+        jdbcTemplate.update("UPDATE books SET available_copies = available_copies - 1 WHERE id = ?", bookId);
+        Long recordId = jdbcTemplate.queryForObject(
+                "SELECT id FROM borrow_records WHERE user_id = ? AND book_record_id IS NULL", Long.class, userId);
+
+        assertTrue(borrowRecordService.returnBook(userId, recordId));
+
+        assertEquals(2, count("SELECT status FROM borrow_records WHERE id = ?", recordId));
+        assertEquals(1, count("SELECT available_copies FROM books WHERE id = ?", bookId));
+        assertEquals(1, count("SELECT COUNT(*) FROM book_records WHERE book_id = ? AND status = 1", bookId));
+        // 副本池仍可正常借出剩余的副本
+        assertEquals(BorrowOutcome.SUCCESS, borrowRecordService.borrowBook(insertUser(), bookId));
+    }
+}
@@ -0,0 +1,99 @@
+package com.library.service;
+
+import com.library.common.BorrowOutcome;
+import com.library.support.IntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// 多个读者同时借阅同一本书：成功数等于副本数，库存、副本状态和借阅记录保持一致
+class BorrowRecordServiceConcurrencyTest extends IntegrationTest {
+
+    private static final int COPIES = 5;
+
+    private static final int READERS = 24;
+
+    @Resource
+    private BorrowRecordService borrowRecordService;
+
+    @Test
+    void concurrentBorrowsNeverOversellCopies() throws Exception {
+        long bookId = insertBook(COPIES);
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            userIds.add(insertUser());
+        }
+
+        List<BorrowOutcome> outcomes = borrowConcurrently(userIds, bookId);
+
+        Map<BorrowOutcome, Long> counts = outcomes.stream()
+                .collect(Collectors.groupingBy(outcome -> outcome, Collectors.counting()));
+        assertEquals(COPIES, counts.getOrDefault(BorrowOutcome.SUCCESS, 0L));
+        assertEquals(READERS - COPIES, counts.getOrDefault(BorrowOutcome.NO_AVAILABLE_COPY, 0L));
+        assertConsistent(bookId, COPIES);
+    }
+
+    @Test
+    void returnedCopiesCanBeBorrowedAgain() throws Exception {
+        long bookId = insertBook(COPIES);
+        List<Long> firstRound = new ArrayList<>();
+        for (int i = 0; i < COPIES; i++) {
+            firstRound.add(insertUser());
+        }
+        borrowConcurrently(firstRound, bookId);
+        for (Long recordId : jdbcTemplate.queryForList(
+                "SELECT id FROM borrow_records WHERE book_id = ? AND status = 1", Long.class, bookId)) {
+            Long userId = jdbcTemplate.queryForObject("SELECT user_id FROM borrow_records WHERE id = ?", Long.class, recordId);
+            borrowRecordService.returnBook(userId, recordId);
+        }
+        assertConsistent(bookId, 0);
+
+        List<Long> secondRound = new ArrayList<>();
+        for (int i = 0; i < READERS; i++) {
+            secondRound.add(insertUser());
+        }
+        long succeeded = borrowConcurrently(secondRound, bookId).stream()
+                .filter(outcome -> outcome == BorrowOutcome.SUCCESS).count();
+        assertEquals(COPIES, succeeded);
+        assertConsistent(bookId, COPIES);
+    }
+
+    // 所有线程就绪后同时开始借阅
+    private List<BorrowOutcome> borrowConcurrently(List<Long> userIds, long bookId) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(userIds.size());
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<BorrowOutcome>> futures = new ArrayList<>();
+            for (Long userId : userIds) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return borrowRecordService.borrowBook(userId, bookId);
+                }));
+            }
+            start.countDown();
+            List<BorrowOutcome> outcomes = new ArrayList<>();
+            for (Future<BorrowOutcome> future : futures) {
+                outcomes.add(future.get(60, TimeUnit.SECONDS));
+            }
+            return outcomes;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertConsistent(long bookId, int borrowed) {
+        assertEquals(COPIES - borrowed, count("SELECT available_copies FROM books WHERE id = ?", bookId));
+        assertEquals(borrowed, count("SELECT COUNT(*) FROM borrow_records WHERE book_id = ? AND status = 1", bookId));
+        assertEquals(borrowed, count("SELECT COUNT(DISTINCT book_record_id) FROM borrow_records " +
+                "WHERE book_id = ? AND status = 1", bookId));
+        assertEquals(borrowed, count("SELECT COUNT(*) FROM book_records WHERE book_id = ? AND status = 0", bookId));
+        assertEquals(COPIES - borrowed, count("SELECT COUNT(*) FROM book_records WHERE book_id = ? AND status = 1", bookId));
+    }
+}
@@ -0,0 +1,53 @@
+package com.library.support;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 在 H2 内存库（MySQL 兼容模式）中加载 database/init.sql，供集成测试和基准测试使用
+public final class H2Schema {
+
+    private static final Path INIT_SQL = Paths.get("database", "init.sql");
+
+    private static final Pattern CREATE_TABLE = Pattern.compile("^CREATE TABLE `(\\w+)`");
+
+    private static final Pattern INDEX_NAME = Pattern.compile("KEY `(\\w+)`");
+
+    private H2Schema() {
+    }
+
+    public static String url(String database) {
+        return "jdbc:h2:mem:" + database + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    // init.sql 按 MySQL 编写：H2 不支持 USE，且索引名在整个库内唯一，需要加上表名前缀
+    public static void load(Connection connection) throws IOException, SQLException {
+        StringBuilder script = new StringBuilder();
+        for (String line : new String(Files.readAllBytes(INIT_SQL), StandardCharsets.UTF_8).split("\r?\n")) {
+            if (!line.trim().startsWith("--")) {
+                script.append(line).append('\n');
+            }
+        }
+
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : script.toString().split(";\\s*\n")) {
+                sql = sql.trim();
+                if (sql.isEmpty() || sql.toUpperCase().startsWith("USE ")) {
+                    continue;
+                }
+                Matcher table = CREATE_TABLE.matcher(sql);
+                if (table.find()) {
+                    sql = INDEX_NAME.matcher(sql).replaceAll("KEY `" + table.group(1) + "_$1`");
+                }
+                statement.execute(sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.library.support;
+
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 每个测试上下文使用独立的 H2 内存库，在缓存组件启动加载数据之前建好表结构；
+// 定时任务间隔拉长，需要时由测试直接调用
+public class H2TestDatabase implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        String url = H2Schema.url("library_test_" + SEQUENCE.incrementAndGet());
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            H2Schema.load(connection);
+        } catch (SQLException | IOException e) {
+            throw new IllegalStateException("初始化测试数据库失败", e);
+        }
+
+        TestPropertyValues.of(
+                "spring.datasource.url=" + url,
+                "spring.datasource.driver-class-name=org.h2.Driver",
+                "spring.datasource.username=sa",
+                "spring.datasource.password=",
+                "library.overdue.sweep-interval-ms=3600000",
+                "library.popularity.refresh-interval-ms=3600000",
+                "library.popularity.checkpoint-interval-ms=3600000",
+                "library.suggest.rebuild-interval-ms=3600000",
+                "library.category.refresh-interval-ms=3600000",
+                "library.token-revocation.sync-interval-ms=3600000",
+                "library.login.last-login-flush-ms=3600000"
+        ).applyTo(context);
+    }
+}
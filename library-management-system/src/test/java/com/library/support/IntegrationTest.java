@@ -0,0 +1,59 @@
+package com.library.support;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.test.context.ContextConfiguration;
+
+import javax.annotation.Resource;
+import java.sql.PreparedStatement;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// 集成测试基类：完整的应用上下文运行在 H2 上，各测试类共用同一个上下文，
+// 测试数据通过下面的方法各自插入，互不干扰
+@SpringBootTest
+@ContextConfiguration(initializers = H2TestDatabase.class)
+public abstract class IntegrationTest {
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Resource
+    protected JdbcTemplate jdbcTemplate;
+
+    protected long insertUser() {
+        int n = SEQUENCE.incrementAndGet();
+        return insert("INSERT INTO users (username, password, email, real_name, student_id, status) " +
+                        "VALUES (?, ?, ?, ?, ?, 1)",
+                "test" + n, "{noop}unused", "test" + n + "@library.com", "测试读者" + n, String.format("T%08d", n));
+    }
+
+    // 插入图书及其全部可借副本
+    protected long insertBook(int copies) {
+        int n = SEQUENCE.incrementAndGet();
+        long bookId = insert("INSERT INTO books (isbn, title, author, category_id, total_copies, available_copies, status) " +
+                "VALUES (?, ?, ?, 1, ?, ?, 1)", String.format("978-0-%08d", n), "测试图书" + n, "测试作者", copies, copies);
+        for (int copy = 0; copy < copies; copy++) {
+            jdbcTemplate.update("INSERT INTO book_records (book_id, barcode, location, status) VALUES (?, ?, ?, 1)",
+                    bookId, String.format("TB%08d%04d", n, copy), "测试书架");
+        }
+        return bookId;
+    }
+
+    protected int count(String sql, Object... args) {
+        Integer count = jdbcTemplate.queryForObject(sql, Integer.class, args);
+        return count != null ? count : 0;
+    }
+
+    private long insert(String sql, Object... args) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"id"});
+            for (int i = 0; i < args.length; i++) {
+                ps.setObject(i + 1, args[i]);
+            }
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+}
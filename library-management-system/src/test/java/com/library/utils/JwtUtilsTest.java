@@ -0,0 +1,63 @@
+package com.library.utils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsTest {
+
+    private static final String SECRET = "library-management-secret-key-for-tests";
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "secret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 900000L);
+        ReflectionTestUtils.setField(jwtUtils, "refreshExpiration", 604800000L);
+        ReflectionTestUtils.setField(jwtUtils, "cacheSize", 100L);
+        jwtUtils.init();
+    }
+
+    @Test
+    void accessAndRefreshTokensAreDistinguished() {
+        Claims access = jwtUtils.getClaimsFromToken(jwtUtils.generateToken(7L, "reader1", "USER"));
+        Claims refresh = jwtUtils.getClaimsFromToken(jwtUtils.generateRefreshToken(7L, "reader1", "USER"));
+
+        assertTrue(jwtUtils.isAccessToken(access));
+        assertFalse(jwtUtils.isRefreshToken(access));
+        assertTrue(jwtUtils.isRefreshToken(refresh));
+        assertFalse(jwtUtils.isAccessToken(refresh));
+        assertNotEquals(access.getId(), refresh.getId());
+    }
+
+    @Test
+    void resolvedUserIdIsCachedWithLegacyToken() {
+        // 加入用户ID之前签发的token
+        String token = Jwts.builder()
+                .setSubject("reader1")
+                .claim("role", "USER")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+
+        Claims claims = jwtUtils.getClaimsFromToken(token);
+        assertNull(jwtUtils.getUserIdFromClaims(claims));
+
+        jwtUtils.cacheUserId(token, claims, 7L);
+
+        assertEquals(7L, jwtUtils.getUserIdFromClaims(jwtUtils.getClaimsFromToken(token)));
+        // 原对象可能正被其他请求读取，不做修改
+        assertNull(jwtUtils.getUserIdFromClaims(claims));
+    }
+}